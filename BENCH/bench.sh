@@ -0,0 +1,10 @@
+#!/bin/sh
+# JMH 벤치마크 빌드 + 실행 (어디서 실행해도 됨)
+#   BENCH/bench.sh [벤치마크 정규식 ...] [JMH 옵션]
+#   BENCH/bench.sh Util -p nodes=4,64 -rf json -rff bench.json
+#   BENCH/bench.sh -l   (벤치마크 목록)
+# 빌드: BENCH/pom.xml (COMMON + SP_TEST3 + UTIL 소스를 함께 컴파일) -> BENCH/target/benchmarks.jar
+set -e
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+mvn -q -B -f "$ROOT/BENCH/pom.xml" package
+exec java -Dfile.encoding=UTF-8 -jar "$ROOT/BENCH/target/benchmarks.jar" "$@"
@@ -0,0 +1,142 @@
+package bench;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jetty.client.HttpClient;
+import org.eclipse.jetty.client.api.Result;
+import org.eclipse.jetty.client.util.BufferingResponseListener;
+import org.eclipse.jetty.client.util.StringContentProvider;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+
+/**
+ * SP_TEST3 동시 요청 부하 테스트 (closed loop)
+ * - 동시 요청 수(concurrency)만큼 요청을 띄워 두고, 응답이 오면 바로 다음 요청을 보내 지속 시간 동안 유지한다
+ * - 처리량, 지연 시간 분포, 실제 동시 처리 수(처리량 x 평균 지연, Little's law)를 출력한다
+ * - 서버 스레드 수보다 훨씬 많은 동시 요청이 유지되는지 확인하는 용도
+ * - 503(수락 제어 거절)은 오류와 따로 세고, Retry-After만큼 기다렸다가 다음 요청을 보낸다
+ * - 결과에 unknown이 있는 응답(모델 타임아웃/실패)은 degraded로 세고, goodput에서 제외한다
+ *
+ * - 실행 중인 서버가 있어야 하는 부하 테스트이므로 JMH 벤치마크로 두지 않고 main으로 실행한다
+ *
+ * 실행 예 (모델 서버 지연 200ms, SP_TEST3 스레드 16개, 결과 캐시 끔):
+ *   java -cp "bin:lib/*" MockModelServer 9010 200
+ *   java -Dserver.maxThreads=16 -Dmodel.cache.maxSize=0 -Dmodel.maxInFlightPerModel=4096
+ *        -Dmodel.client.maxConnectionsPerDestination=1024 -cp "bin:lib/*" SP_TEST3
+ *   java -cp BENCH/target/benchmarks.jar bench.AsyncLoadTest [url=http://127.0.0.1:8080/] [concurrency=1000] [durationSec=10] [model=cinema review]
+ */
+public class AsyncLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        String url = args.length > 0 ? args[0] : "http://127.0.0.1:8080/";
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int durationSec = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        String model = args.length > 3 ? args[3] : "cinema review";
+
+        QueuedThreadPool executor = new QueuedThreadPool(16);
+        executor.setName("load-client");
+        executor.setDaemon(true);
+        HttpClient client = new HttpClient();
+        client.setExecutor(executor);
+        client.setMaxConnectionsPerDestination(concurrency);
+        client.setMaxRequestsQueuedPerDestination(concurrency * 2);
+        client.start();
+
+        LoadRun run = new LoadRun(client, url, model, System.nanoTime() + TimeUnit.SECONDS.toNanos(durationSec));
+        long start = System.nanoTime();
+        for (int i = 0; i < concurrency; i++) {
+            run.send();
+        }
+        run.finished.await();
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        client.stop();
+
+        long[] latencies = Arrays.copyOf(run.latenciesMicros, (int) Math.min(run.completed.get(),
+                run.latenciesMicros.length));
+        Arrays.sort(latencies);
+        double throughput = run.completed.get() / seconds;
+        double avgMs = latencies.length == 0 ? 0 : Arrays.stream(latencies).average().orElse(0) / 1000.0;
+        System.out.printf("concurrency=%d duration=%.1fs completed=%,d errors=%,d rejected(503)=%,d degraded=%,d%n",
+                concurrency, seconds, run.completed.get(), run.errors.get(), run.rejected.get(), run.degraded.get());
+        System.out.printf("goodput=%,.0f req/s (completed without unknown)%n",
+                (run.completed.get() - run.degraded.get()) / seconds);
+        System.out.printf("throughput=%,.0f req/s  latency avg=%.1fms p50=%.1fms p99=%.1fms max=%.1fms%n", throughput,
+                avgMs, percentile(latencies, 50), percentile(latencies, 99), percentile(latencies, 100));
+        System.out.printf("max in-flight=%d  sustained concurrency (throughput x avg latency)=%.0f%n",
+                run.maxInFlight.get(), throughput * avgMs / 1000.0);
+    }
+
+    private static double percentile(long[] sorted, int p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(p / 100.0 * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1000.0;
+    }
+
+    private static class LoadRun {
+        private final HttpClient client;
+        private final String url;
+        private final String model;
+        private final long deadline;
+        private final long[] latenciesMicros = new long[1 << 22];
+        private final AtomicLong completed = new AtomicLong();
+        private final AtomicLong errors = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong degraded = new AtomicLong();
+        private final AtomicLong sequence = new AtomicLong();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger maxInFlight = new AtomicInteger();
+        private final CountDownLatch finished = new CountDownLatch(1);
+
+        LoadRun(HttpClient client, String url, String model, long deadline) {
+            this.client = client;
+            this.url = url;
+            this.model = model;
+            this.deadline = deadline;
+        }
+
+        void send() {
+            long n = sequence.incrementAndGet();
+            String body = "{\"modelname\":\"" + model + "\",\"queries\":[\"load test query " + n + "\"]}";
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            long start = System.nanoTime();
+            client.POST(url).content(new StringContentProvider(body), "application/json")
+                    .send(new BufferingResponseListener() {
+                        @Override
+                        public void onComplete(Result result) {
+                            long pauseMs = 0;
+                            if (!result.isFailed() && result.getResponse().getStatus() == 503) {
+                                rejected.incrementAndGet();
+                                String retryAfter = result.getResponse().getHeaders().get("Retry-After");
+                                pauseMs = retryAfter == null ? 1000 : Long.parseLong(retryAfter) * 1000;
+                            } else if (result.isFailed() || result.getResponse().getStatus() != 200) {
+                                errors.incrementAndGet();
+                            } else {
+                                long index = completed.getAndIncrement();
+                                if (index < latenciesMicros.length) {
+                                    latenciesMicros[(int) index] = (System.nanoTime() - start) / 1000;
+                                }
+                                if (getContentAsString().contains("unknown")) {
+                                    degraded.incrementAndGet();
+                                }
+                            }
+                            if (System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(pauseMs) < deadline) {
+                                inFlight.decrementAndGet();
+                                if (pauseMs > 0) {
+                                    CompletableFuture.delayedExecutor(pauseMs, TimeUnit.MILLISECONDS).execute(LoadRun.this::send);
+                                } else {
+                                    send();
+                                }
+                            } else if (inFlight.decrementAndGet() == 0) {
+                                finished.countDown();
+                            }
+                        }
+                    });
+        }
+    }
+}
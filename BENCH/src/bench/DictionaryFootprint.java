@@ -0,0 +1,84 @@
+package bench;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * 사전 메모리 사용량 비교 (기존 HashMap<String,String> vs CharDictionary vs OffHeapDictionary)
+ * - 힙 사용량은 GC 후 Runtime 기준 증가량으로 측정하고, off-heap은 할당한 다이렉트 버퍼 크기로 계산한다
+ *
+ * - 시간이 아니라 메모리를 재므로 JMH 벤치마크로 두지 않고 main으로 실행한다
+ *
+ * 실행: java -Xmx4g -cp BENCH/target/benchmarks.jar bench.DictionaryFootprint [DICTIONARY.TXT 경로 | 생성할 항목 수(기본 1000000)]
+ */
+public class DictionaryFootprint {
+
+    public static void main(String[] args) throws Exception {
+        String source = args.length > 0 ? args[0] : "1000000";
+
+        long before = usedHeap();
+        Map<String, String> hashMap = new HashMap<>();
+        load(source, hashMap::put);
+        long hashMapHeap = usedHeap() - before;
+        report("HashMap<String,String>", hashMap.size(), hashMapHeap, 0);
+        hashMap = null;
+
+        before = usedHeap();
+        CharDictionary charDictionary = new CharDictionary();
+        load(source, charDictionary::put);
+        long charHeap = usedHeap() - before;
+        report("CharDictionary", charDictionary.size(), charHeap, 0);
+        System.out.println("  (추정치 footprintBytes = " + charDictionary.footprintBytes() / 1024 + " KB)");
+        charDictionary = null;
+
+        before = usedHeap();
+        OffHeapDictionary offHeap = new OffHeapDictionary(1024);
+        load(source, offHeap::put);
+        long offHeapHeap = usedHeap() - before;
+        report("OffHeapDictionary", offHeap.size(), offHeapHeap, offHeap.footprintBytes());
+        System.out.println("  (데이터 영역 실사용 = " + offHeap.dataBytes() / 1024 + " KB)");
+    }
+
+    private interface Sink {
+        void put(String word, String vector);
+    }
+
+    // 파일 경로면 word#vector 형식으로 읽고, 숫자면 해당 개수만큼 항목 생성
+    private static void load(String source, Sink sink) throws IOException {
+        if (source.chars().allMatch(Character::isDigit)) {
+            int count = Integer.parseInt(source);
+            Random random = new Random(42);
+            for (int i = 0; i < count; i++) {
+                sink.put("word" + i, String.valueOf(100 + random.nextInt(100000)));
+            }
+            return;
+        }
+        try (BufferedReader br = new BufferedReader(new FileReader(source))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                String[] parts = line.split("#");
+                if (parts.length == 2) {
+                    sink.put(parts[0], parts[1]);
+                }
+            }
+        }
+    }
+
+    private static void report(String name, int entries, long heapBytes, long offHeapBytes) {
+        System.out.printf("%-24s entries=%,d  heap=%,d KB  off-heap=%,d KB  (%.1f bytes/entry)%n", name, entries,
+                heapBytes / 1024, offHeapBytes / 1024, (double) (heapBytes + offHeapBytes) / Math.max(1, entries));
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
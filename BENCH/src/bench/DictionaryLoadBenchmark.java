@@ -0,0 +1,130 @@
+package bench;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 사전 파일 로드 시간 벤치마크 (ms/op, op = 파일 하나 전체 로드)
+ * - 기존 방식: BufferedReader.readLine + split("#") 순차 로드 (CharDictionary, 기본 크기에서 재해시하며 증가)
+ * - 변경 방식: DictionaryLoader 구간별 병렬 파싱 + 미리 크기를 잡은 사전에 병합 (병렬도 parallelism)
+ * - 파일은 entries개 항목을 seed로 생성하거나, -p file=경로 로 실제 DICTIONARY.TXT를 지정한다
+ *
+ * 실행: BENCH/bench.sh DictionaryLoad [-p entries=500000,2000000] [-p parallelism=1,2,4] [-p file=DICTIONARY.TXT]
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class DictionaryLoadBenchmark {
+
+    /**
+     * 로드할 사전 파일 (벤치마크 전체에서 한 번 생성)
+     */
+    @State(Scope.Benchmark)
+    public static class DictionaryFile {
+        @Param("2000000")
+        public int entries;
+
+        // 비어 있으면 entries개 항목을 생성
+        @Param("")
+        public String file;
+
+        @Param("42")
+        public long seed;
+
+        String path;
+        private File generated;
+
+        @Setup(Level.Trial)
+        public void create() throws IOException {
+            if (!file.isEmpty()) {
+                path = file;
+                return;
+            }
+            generated = File.createTempFile("dictionary", ".txt");
+            generated.deleteOnExit();
+            Random random = new Random(seed);
+            try (BufferedWriter writer = new BufferedWriter(new FileWriter(generated))) {
+                for (int i = 0; i < entries; i++) {
+                    writer.write("word" + i + "#" + (100 + random.nextInt(100000)) + "\r\n");
+                }
+            }
+            path = generated.getPath();
+        }
+
+        @TearDown(Level.Trial)
+        public void delete() {
+            if (generated != null) {
+                generated.delete();
+            }
+        }
+    }
+
+    /**
+     * DictionaryLoader 병렬 파싱용 풀
+     */
+    @State(Scope.Benchmark)
+    public static class LoaderPool {
+        @Param({ "1", "2", "4" })
+        public int parallelism;
+
+        ForkJoinPool pool;
+
+        @Setup(Level.Trial)
+        public void start() {
+            pool = new ForkJoinPool(parallelism);
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            pool.shutdown();
+        }
+    }
+
+    @Benchmark
+    public CharDictionary readLineSplit(DictionaryFile dictionaryFile) throws IOException {
+        return legacyLoad(dictionaryFile.path);
+    }
+
+    @Benchmark
+    public CharDictionary dictionaryLoader(DictionaryFile dictionaryFile, LoaderPool loader) throws IOException {
+        return DictionaryLoader.load(dictionaryFile.path, null, CharDictionary::new, loader.pool).dictionary();
+    }
+
+    // 기존 SP_TEST.loadDictionary와 동일한 구현
+    private static CharDictionary legacyLoad(String path) throws IOException {
+        CharDictionary dictionary = new CharDictionary();
+        try (BufferedReader br = new BufferedReader(new FileReader(path))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                String[] parts = line.split("#");
+                if (parts.length == 2) {
+                    dictionary.put(parts[0], parts[1]);
+                }
+            }
+        }
+        return dictionary;
+    }
+}
@@ -0,0 +1,102 @@
+package bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * SP_TEST3 모델/class code 조회 벤치마크 (ns/op, op = (모델명, code) 조회 1회)
+ * - 기존 방식: models.stream().filter(...) + classes.stream().filter(...) 선형 탐색
+ * - 변경 방식: loadModels에서 만든 해시 인덱스 (SP_TEST3.indexModels, ModelInfo.valueOf)
+ * - 조회할 (모델명, code) 쌍은 seed로 미리 생성해 순서대로 돌려 쓴다
+ *
+ * 실행: BENCH/bench.sh ModelLookup [-p modelCount=10,100,500] [-p classCount=10,100,500]
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ModelLookupBenchmark {
+
+    private static final int PAIRS = 1024;
+
+    @Param({ "10", "100", "500" })
+    public int modelCount;
+
+    @Param({ "10", "100", "500" })
+    public int classCount;
+
+    @Param("42")
+    public long seed;
+
+    private List<SP_TEST3.ModelInfo> models;
+    private Map<String, SP_TEST3.ModelInfo> index;
+    private String[] names;
+    private String[] codes;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void create() {
+        models = createModels(modelCount, classCount);
+        index = SP_TEST3.indexModels(models);
+        Random random = new Random(seed);
+        names = new String[PAIRS];
+        codes = new String[PAIRS];
+        for (int i = 0; i < PAIRS; i++) {
+            names[i] = "model-" + random.nextInt(modelCount);
+            codes[i] = "code-" + random.nextInt(classCount);
+        }
+    }
+
+    @Benchmark
+    public String streamFilter() {
+        int i = cursor++ & (PAIRS - 1);
+        String modelName = names[i];
+        String code = codes[i];
+        SP_TEST3.ModelInfo model = models.stream().filter(m -> m.modelname.equals(modelName)).findFirst()
+                .orElse(null);
+        return model.classes.stream().filter(c -> c.code.equals(code)).map(c -> c.value).findFirst()
+                .orElse("unknown");
+    }
+
+    @Benchmark
+    public String hashIndex() {
+        int i = cursor++ & (PAIRS - 1);
+        return index.get(names[i]).valueOf(codes[i]);
+    }
+
+    private static List<SP_TEST3.ModelInfo> createModels(int modelCount, int classCount) {
+        List<SP_TEST3.ModelInfo> models = new ArrayList<>(modelCount);
+        for (int m = 0; m < modelCount; m++) {
+            SP_TEST3.ModelInfo model = new SP_TEST3.ModelInfo();
+            model.modelname = "model-" + m;
+            model.url = "http://127.0.0.1:9010";
+            model.classes = new ArrayList<>(classCount);
+            for (int c = 0; c < classCount; c++) {
+                SP_TEST3.ClassInfo classInfo = new SP_TEST3.ClassInfo();
+                classInfo.code = "code-" + c;
+                classInfo.value = "value-" + c;
+                model.classes.add(classInfo);
+            }
+            models.add(model);
+        }
+        return models;
+    }
+}
@@ -0,0 +1,202 @@
+package bench;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.stream.Stream;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * SP_TEST3 스트리밍 윈도우 검증 (model.stream.window)
+ * - 임시 디렉터리에 사전/모델 파일을 만들고 느린 MockModelServer와 SP_TEST3를 자식 프로세스로 띄운다
+ * - 윈도우보다 훨씬 많은 질의를 한 요청으로 보내고, 모델 서버가 동시에 받은 요청 수의 최대값이
+ *   윈도우 이하인지, 모든 질의에 결과가 왔는지 확인한다 (결과 캐시는 끄고 동시 요청 제한은 윈도우보다 크게 둔다)
+ * - 실패하면 종료 코드 1
+ *
+ * 실행: java -cp BENCH/target/benchmarks.jar bench.StreamWindowTest [queries=2000] [window=16] [delayMs=20]
+ */
+public class StreamWindowTest {
+
+    public static void main(String[] args) throws Exception {
+        int queries = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int window = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        long delayMs = args.length > 2 ? Long.parseLong(args[2]) : 20;
+
+        Path dir = Files.createTempDirectory("stream-window");
+        int modelPort = freePort();
+        int serverPort = freePort();
+        writeResources(dir, modelPort);
+
+        List<Process> processes = new ArrayList<>();
+        try {
+            processes.add(start(dir, MockModelServer.class.getName(), String.valueOf(modelPort),
+                    String.valueOf(delayMs)));
+            processes.add(start(dir, SP_TEST3.class.getName(), "--server.port=" + serverPort,
+                    "--model.stream.window=" + window, "--model.cache.maxSize=0",
+                    "--model.maxInFlightPerModel=100000", "--model.client.maxConnectionsPerDestination=1024",
+                    "--server.asyncTimeoutMs=120000", "--reload.enabled=false"));
+            String modelUrl = "http://127.0.0.1:" + modelPort + "/";
+            String serverUrl = "http://127.0.0.1:" + serverPort + "/";
+            awaitUp(modelUrl);
+            awaitUp(serverUrl + "metrics");
+
+            long start = System.nanoTime();
+            JsonArray results = JsonParser.parseString(post(serverUrl, body(queries))).getAsJsonObject()
+                    .getAsJsonArray("results");
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+            JsonObject stats = JsonParser.parseString(get(modelUrl)).getAsJsonObject();
+            int maxInFlight = stats.get("maxInFlight").getAsInt();
+            long unknown = 0;
+            for (JsonElement e : results) {
+                if ("unknown".equals(e.getAsString())) {
+                    unknown++;
+                }
+            }
+            System.out.printf("queries=%d, window=%d, delay=%dms: %.2f s, results=%d (unknown %d), "
+                    + "model requests=%d, max in flight=%d%n", queries, window, delayMs, seconds, results.size(),
+                    unknown, stats.get("requests").getAsLong(), maxInFlight);
+
+            List<String> failures = new ArrayList<>();
+            if (results.size() != queries) {
+                failures.add("결과 수 " + results.size() + " != 질의 수 " + queries);
+            }
+            if (unknown > 0) {
+                failures.add("unknown 결과 " + unknown + "건");
+            }
+            if (maxInFlight > window) {
+                failures.add("모델 서버 동시 요청 최대 " + maxInFlight + " > 윈도우 " + window);
+            }
+            if (!failures.isEmpty()) {
+                System.out.println("FAIL: " + String.join(", ", failures));
+                System.exit(1);
+            }
+            System.out.println("OK");
+        } catch (Exception e) {
+            printLogs(dir);
+            throw e;
+        } finally {
+            for (Process process : processes) {
+                process.destroy();
+                process.waitFor();
+            }
+            try (Stream<Path> files = Files.walk(dir)) {
+                files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+            }
+        }
+    }
+
+    private static void writeResources(Path dir, int modelPort) throws IOException {
+        StringBuilder dictionary = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            dictionary.append("w").append(i).append('#').append(100 + i).append("\r\n");
+        }
+        Files.writeString(dir.resolve("DICTIONARY.TXT"), dictionary);
+        Files.writeString(dir.resolve("STOPWORD.TXT"), "");
+        Files.writeString(dir.resolve("MODELS.JSON"), "{\"models\": [{\"modelname\": \"window\", \"url\": "
+                + "\"http://127.0.0.1:" + modelPort + "\", \"classes\": [{\"code\": \"a\", \"value\": \"A\"}, "
+                + "{\"code\": \"b\", \"value\": \"B\"}]}]}");
+    }
+
+    private static Process start(Path dir, String mainClass, String... args) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-Dfile.encoding=UTF-8");
+        command.add("-cp");
+        // 자식 프로세스는 임시 디렉터리에서 실행하므로 클래스패스를 절대 경로로 바꾼다
+        StringJoiner classPath = new StringJoiner(File.pathSeparator);
+        for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            classPath.add(Path.of(entry).toAbsolutePath().toString());
+        }
+        command.add(classPath.toString());
+        command.add(mainClass);
+        command.addAll(List.of(args));
+        return new ProcessBuilder(command).directory(dir.toFile()).redirectErrorStream(true)
+                .redirectOutput(dir.resolve(mainClass + ".log").toFile()).start();
+    }
+
+    // 실패 시 자식 프로세스 로그 출력
+    private static void printLogs(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path log : (Iterable<Path>) files.filter(f -> f.toString().endsWith(".log"))::iterator) {
+                System.out.println("--- " + log.getFileName());
+                System.out.println(Files.readString(log));
+            }
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static void awaitUp(String url) throws Exception {
+        long deadline = System.nanoTime() + 30_000_000_000L;
+        while (true) {
+            try {
+                get(url);
+                return;
+            } catch (IOException e) {
+                if (System.nanoTime() > deadline) {
+                    throw new IOException("server did not start: " + url, e);
+                }
+                Thread.sleep(100);
+            }
+        }
+    }
+
+    private static String body(int queries) {
+        JsonObject body = new JsonObject();
+        body.addProperty("modelname", "window");
+        JsonArray array = new JsonArray(queries);
+        for (int i = 0; i < queries; i++) {
+            array.add("w" + (i % 100) + " W" + (i * 7 % 100) + " q" + i);
+        }
+        body.add("queries", array);
+        return body.toString();
+    }
+
+    private static String get(String url) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        return read(connection);
+    }
+
+    private static String post(String url, String body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setRequestProperty("Content-Type", "application/json");
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        return read(connection);
+    }
+
+    private static String read(HttpURLConnection connection) throws IOException {
+        int status = connection.getResponseCode();
+        if (status != 200) {
+            throw new IOException("HTTP " + status + " from " + connection.getURL());
+        }
+        try (InputStream in = connection.getInputStream()) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            in.transferTo(bytes);
+            return bytes.toString(StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package bench;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jetty.util.component.LifeCycle;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.eclipse.jetty.util.thread.ThreadPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 블로킹 요청 처리 스레드 모델 비교 (QueuedThreadPool vs 작업마다 가상 스레드)
+ * - op 하나 = 요청 requests개를 한꺼번에 넣고 모두 끝날 때까지의 시간 (ms/op)
+ * - 요청 하나 = 모델 서버 왕복을 흉내 낸 블로킹 대기(sleep blockMs)
+ * - QueuedThreadPool은 동시에 maxThreads개까지만 대기할 수 있어 나머지는 큐에서 기다리고,
+ *   가상 스레드는 요청 수만큼 동시에 대기한다 (이상적인 시간은 blockMs)
+ * - 가상 스레드를 지원하지 않는 JDK(21 미만)에서는 pool=virtual 조합이 설정 단계에서 실패한다
+ *   (-p pool=queued 로 QueuedThreadPool만 측정)
+ *
+ * 서버 전체 비교는 AsyncLoadTest를 SP_TEST3 -Dserver.virtualThreads=true / false 에 각각 실행한다
+ *
+ * 실행: BENCH/bench.sh ThreadMode [-p requests=1000,10000] [-p blockMs=50] [-p maxThreads=200] [-p pool=queued]
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ThreadModeBenchmark {
+
+    @Param({ "queued", "virtual" })
+    public String pool;
+
+    @Param({ "1000", "10000", "50000" })
+    public int requests;
+
+    @Param("50")
+    public long blockMs;
+
+    @Param("200")
+    public int maxThreads;
+
+    private ThreadPool threadPool;
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        if ("virtual".equals(pool)) {
+            if (!VirtualThreadPool.isSupported()) {
+                throw new IllegalStateException("가상 스레드 미지원 JDK (" + Runtime.version() + ")");
+            }
+            threadPool = VirtualThreadPool.create("bench");
+        } else {
+            threadPool = new QueuedThreadPool(maxThreads, Math.min(8, maxThreads), 60000, null);
+        }
+        ((LifeCycle) threadPool).start();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws Exception {
+        ((LifeCycle) threadPool).stop();
+    }
+
+    @Benchmark
+    public void blockingRequests() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(requests);
+        for (int i = 0; i < requests; i++) {
+            threadPool.execute(() -> {
+                try {
+                    Thread.sleep(blockMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                done.countDown();
+            });
+        }
+        done.await();
+    }
+}
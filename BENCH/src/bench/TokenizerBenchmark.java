@@ -0,0 +1,130 @@
+package bench;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 문장 전처리(preprocess) 벤치마크 (ns/op, op = 문장 1개)
+ * - preprocessHeap / preprocessOffHeap: 실제 SP_TEST3.MainServlet.preprocess (스레드별 Tokenizer) + CharDictionary / OffHeapDictionary
+ *   (불용어 벡터는 사전 적재 시 제외 표시하므로 토큰당 조회 1회)
+ * - splitHashMap: 변경 전 preprocess 본문 (trim().split("\\s+") + toLowerCase() + ArrayList + String.join, HashMap 사전)
+ *   현재 코드에는 없으므로 baseline 커밋의 본문을 그대로 두고 사전/불용어만 인자로 받는다 (비교 기준)
+ * - 문장은 사전 단어 80%, 미등록 단어 20%, 대소문자 혼합이며 seed로 생성한다
+ *
+ * 실행: BENCH/bench.sh Tokenizer [-p words=5,20,100] [-p seed=42]
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TokenizerBenchmark {
+
+    private static final int DICTIONARY_SIZE = 100_000;
+    private static final int SENTENCES = 256;
+
+    @Param({ "5", "20", "100" })
+    public int words;
+
+    @Param("42")
+    public long seed;
+
+    private Set<String> stopwords;
+    private Map<String, String> hashMap;
+    private CharDictionary charDictionary;
+    private OffHeapDictionary offHeapDictionary;
+    private String[] sentences;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void create() {
+        Random random = new Random(seed);
+        stopwords = new HashSet<>();
+        for (int i = 100; i < 200; i++) {
+            stopwords.add(String.valueOf(i));
+        }
+        hashMap = new HashMap<>();
+        charDictionary = new CharDictionary(DICTIONARY_SIZE);
+        offHeapDictionary = new OffHeapDictionary(DICTIONARY_SIZE);
+        for (int i = 0; i < DICTIONARY_SIZE; i++) {
+            String word = "word" + i;
+            String vector = String.valueOf(100 + random.nextInt(5000));
+            hashMap.put(word, vector);
+            String folded = stopwords.contains(vector) ? null : vector;
+            charDictionary.put(word, folded);
+            offHeapDictionary.put(word, folded);
+        }
+        sentences = createSentences(random, SENTENCES, words);
+    }
+
+    @Benchmark
+    public String splitHashMap() {
+        return legacyPreprocess(nextSentence(), hashMap, stopwords);
+    }
+
+    @Benchmark
+    public String preprocessHeap() {
+        return SP_TEST3.MainServlet.preprocess(nextSentence(), charDictionary);
+    }
+
+    @Benchmark
+    public String preprocessOffHeap() {
+        return SP_TEST3.MainServlet.preprocess(nextSentence(), offHeapDictionary);
+    }
+
+    private String nextSentence() {
+        return sentences[cursor++ & (SENTENCES - 1)];
+    }
+
+    // 변경 전 SP_TEST3.MainServlet.preprocess 본문 (dictionary, stopwords 필드 -> 인자)
+    private static String legacyPreprocess(String sentence, Map<String, String> dictionary, Set<String> stopwords) {
+        String[] tokens = sentence.trim().split("\\s+");
+        List<String> vectors = new ArrayList<>();
+        for (String token : tokens) {
+            String key = token.toLowerCase();
+            String vector = dictionary.get(key);
+            if (vector != null && !stopwords.contains(vector)) {
+                vectors.add(vector);
+            }
+        }
+        return String.join(" ", vectors);
+    }
+
+    // 사전 단어 80%, 미등록 단어 20%, 대소문자 혼합
+    private static String[] createSentences(Random random, int count, int words) {
+        String[] sentences = new String[count];
+        for (int i = 0; i < count; i++) {
+            StringBuilder sb = new StringBuilder();
+            for (int w = 0; w < words; w++) {
+                if (w > 0) {
+                    sb.append(random.nextInt(10) == 0 ? "  " : " ");
+                }
+                String word = random.nextInt(5) == 0 ? "unknown" + random.nextInt(1000)
+                        : "word" + random.nextInt(DICTIONARY_SIZE);
+                sb.append(random.nextBoolean() ? word : word.toUpperCase());
+            }
+            sentences[i] = sb.toString();
+        }
+        return sentences;
+    }
+}
@@ -0,0 +1,326 @@
+package bench;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * UTIL 알고리즘 샘플 벤치마크 (ns/op)
+ * - hash: ConsistentHashRing.getNode (hashCode 링) / AdvancedConsistentHashRing.getNode (MD5 + 가상 노드), 노드 수(nodes)별
+ * - partition: HashPartitioner.distributeData, 파티션 수(partitions) x 데이터 건수(items)별
+ * - balancer: LoadBalancer 라운드 로빈 / 가중치 라운드 로빈 선택, 서버 수(servers)별
+ * - queue: MessageQueue 단일 스레드 produce+consume 왕복, 컨슈머 스레드 1개를 둔 produce, 용량(capacity)별
+ * - pattern: PatternParser 이메일/전화번호/날짜/IP/URL/한글 이름/금액 추출, 줄 수(lines)별 (생성한 임시 파일)
+ * 데이터는 seed로 생성하므로 같은 조건이면 실행마다 같다
+ *
+ * 실행: BENCH/bench.sh UtilBenchmark [-p nodes=4,64] [-p seed=42]
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class UtilBenchmark {
+
+    private static final int KEY_COUNT = 1024;
+
+    /**
+     * 조회 키 순환 커서 (스레드별)
+     */
+    @State(Scope.Thread)
+    public static class Keys {
+        @Param("42")
+        public long seed;
+
+        String[] keys;
+        int cursor;
+
+        @Setup(Level.Trial)
+        public void create() {
+            keys = keys(new Random(seed), KEY_COUNT);
+        }
+
+        String next() {
+            return keys[cursor++ & (KEY_COUNT - 1)];
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class HashRings {
+        @Param({ "4", "64" })
+        public int nodes;
+
+        @Param("100")
+        public int virtualNodes;
+
+        ConsistentHashingSample.ConsistentHashRing ring;
+        ConsistentHashingSample2.AdvancedConsistentHashRing advanced;
+
+        @Setup(Level.Trial)
+        public void create() {
+            ring = new ConsistentHashingSample.ConsistentHashRing(1 << 16);
+            advanced = new ConsistentHashingSample2.AdvancedConsistentHashRing(virtualNodes);
+            for (int i = 0; i < nodes; i++) {
+                ring.addNode("node" + i);
+                advanced.addNode("node" + i);
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Partitioning {
+        @Param({ "1000", "100000" })
+        public int items;
+
+        @Param({ "4", "32" })
+        public int partitions;
+
+        @Param("42")
+        public long seed;
+
+        List<String> data;
+        DataPartitioningSample.HashPartitioner partitioner;
+
+        @Setup(Level.Trial)
+        public void create() {
+            data = List.of(keys(new Random(seed), items));
+            partitioner = new DataPartitioningSample.HashPartitioner(partitions);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Balancer {
+        @Param({ "3", "16", "64" })
+        public int servers;
+
+        @Param("42")
+        public long seed;
+
+        LoadBalancerSample.LoadBalancer balancer;
+
+        @Setup(Level.Trial)
+        public void create() {
+            Random random = new Random(seed);
+            balancer = new LoadBalancerSample.LoadBalancer();
+            for (int i = 0; i < servers; i++) {
+                balancer.addServer(new LoadBalancerSample.Server("server" + i, "10.0.0." + i, 8080,
+                        1 + random.nextInt(5)));
+            }
+        }
+    }
+
+    /**
+     * 같은 스레드에서 produce 후 consume 하는 큐
+     */
+    @State(Scope.Thread)
+    public static class Queue {
+        @Param({ "16", "1024" })
+        public int capacity;
+
+        MessageQueueSample.MessageQueue<String> queue;
+
+        @Setup(Level.Trial)
+        public void create() {
+            queue = new MessageQueueSample.MessageQueue<>(capacity);
+        }
+    }
+
+    /**
+     * 컨슈머 스레드 1개가 계속 소비하는 큐 (측정 스레드는 produce만 한다)
+     */
+    @State(Scope.Benchmark)
+    public static class ConsumedQueue {
+        @Param({ "16", "1024" })
+        public int capacity;
+
+        MessageQueueSample.MessageQueue<String> queue;
+        private final String stop = new String("stop");
+        private Thread consumer;
+        private long consumed;
+
+        @Setup(Level.Trial)
+        public void start() {
+            queue = new MessageQueueSample.MessageQueue<>(capacity);
+            consumer = new Thread(() -> {
+                try {
+                    String message;
+                    while ((message = queue.consume()) != stop) {
+                        consumed += message.length();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "bench-consumer");
+            consumer.start();
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() throws InterruptedException {
+            while (!queue.produce(stop)) {
+                Thread.yield();
+            }
+            consumer.join();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Patterns {
+        @Param({ "1000", "10000" })
+        public int lines;
+
+        @Param("42")
+        public long seed;
+
+        PatternParser parser;
+        private File file;
+
+        @Setup(Level.Trial)
+        public void create() throws IOException {
+            file = File.createTempFile("pattern", ".log");
+            file.deleteOnExit();
+            generateLog(file, lines, new Random(seed));
+            parser = new PatternParser(file.getPath());
+        }
+
+        @TearDown(Level.Trial)
+        public void delete() {
+            file.delete();
+        }
+    }
+
+    @Benchmark
+    public String hashRingGetNode(HashRings rings, Keys keys) {
+        return rings.ring.getNode(keys.next());
+    }
+
+    @Benchmark
+    public String advancedHashRingGetNode(HashRings rings, Keys keys) {
+        return rings.advanced.getNode(keys.next());
+    }
+
+    @Benchmark
+    public Map<String, List<String>> hashPartitionerDistributeData(Partitioning partitioning) {
+        return partitioning.partitioner.distributeData(partitioning.data);
+    }
+
+    @Benchmark
+    public LoadBalancerSample.Server loadBalancerRoundRobin(Balancer balancer) {
+        return balancer.balancer.selectServerRoundRobin();
+    }
+
+    @Benchmark
+    public LoadBalancerSample.Server loadBalancerWeightedRoundRobin(Balancer balancer) {
+        return balancer.balancer.selectServerWeightedRoundRobin();
+    }
+
+    @Benchmark
+    public String messageQueueProduceConsume(Queue queue, Keys keys) throws InterruptedException {
+        queue.queue.produce(keys.next());
+        return queue.queue.consume();
+    }
+
+    // 가득 차면 양보 후 재시도 -> 메시지당 시간
+    @Benchmark
+    public void messageQueueProducerConsumer(ConsumedQueue queue, Keys keys) {
+        String message = keys.next();
+        while (!queue.queue.produce(message)) {
+            Thread.yield();
+        }
+    }
+
+    @Benchmark
+    public List<String> patternParserEmails(Patterns patterns) {
+        return patterns.parser.extractEmails();
+    }
+
+    @Benchmark
+    public List<String> patternParserPhoneNumbers(Patterns patterns) {
+        return patterns.parser.extractPhoneNumbers();
+    }
+
+    @Benchmark
+    public List<String> patternParserDates(Patterns patterns) {
+        return patterns.parser.extractDates();
+    }
+
+    @Benchmark
+    public List<String> patternParserIpAddresses(Patterns patterns) {
+        return patterns.parser.extractIpAddresses();
+    }
+
+    @Benchmark
+    public List<String> patternParserUrls(Patterns patterns) {
+        return patterns.parser.extractUrls();
+    }
+
+    @Benchmark
+    public List<String> patternParserKoreanNames(Patterns patterns) {
+        return patterns.parser.extractKoreanNames();
+    }
+
+    @Benchmark
+    public List<String> patternParserPrices(Patterns patterns) {
+        return patterns.parser.extractPrices();
+    }
+
+    private static String[] keys(Random random, int count) {
+        String[] keys = new String[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = (random.nextBoolean() ? "user:" : "order:") + random.nextInt(1_000_000);
+        }
+        return keys;
+    }
+
+    // 로그 형식 줄 생성 (각 항목은 일정 확률로 포함)
+    private static void generateLog(File file, int lines, Random random) throws IOException {
+        String[] names = { "김민수", "이서연", "박지훈", "최유진", "정다은" };
+        List<String> parts = new ArrayList<>();
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
+            for (int i = 0; i < lines; i++) {
+                parts.clear();
+                parts.add(String.format("2024-%02d-%02d %02d:%02d:%02d INFO", 1 + random.nextInt(12),
+                        1 + random.nextInt(28), random.nextInt(24), random.nextInt(60), random.nextInt(60)));
+                parts.add("request " + Integer.toHexString(random.nextInt()));
+                if (random.nextInt(3) == 0) {
+                    parts.add("user" + random.nextInt(10_000) + "@example" + random.nextInt(10) + ".com");
+                }
+                if (random.nextInt(4) == 0) {
+                    parts.add(String.format("010-%04d-%04d", random.nextInt(10_000), random.nextInt(10_000)));
+                }
+                if (random.nextInt(2) == 0) {
+                    parts.add("from " + random.nextInt(256) + "." + random.nextInt(256) + "." + random.nextInt(256)
+                            + "." + random.nextInt(256));
+                }
+                if (random.nextInt(3) == 0) {
+                    parts.add("https://shop.example.com/item/" + random.nextInt(100_000) + "?ref=log");
+                }
+                if (random.nextInt(4) == 0) {
+                    parts.add(names[random.nextInt(names.length)] + " 고객 ₩" + String.format("%,d",
+                            random.nextInt(1_000_000)));
+                }
+                writer.write(String.join(" ", parts));
+                writer.newLine();
+            }
+        }
+    }
+}
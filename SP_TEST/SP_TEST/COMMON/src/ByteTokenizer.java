@@ -0,0 +1,269 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * UTF-8 바이트 입력용 토크나이저 (CorpusBatch 매핑 모드)
+ * - Tokenizer + LinePipe와 결과가 같지만 입력을 문자로 디코딩하지 않고 바이트 위에서 줄/토큰을 나눈다
+ * - ASCII 토큰은 바이트를 바로 소문자 char로 옮겨 사전을 조회하고(빠른 경로),
+ *   ASCII가 아닌 바이트가 있는 토큰만 UTF-8을 디코딩한다 (느린 경로, 잘못된 바이트열은 new String과 같이 U+FFFD로 치환)
+ * - 사전에 없는 토큰은 객체를 만들지 않는다, 찾은 벡터만 UTF-8로 인코딩해 출력 버퍼에 쓴다
+ * - 줄 앞뒤의 제어 문자(0x00~0x20)는 Tokenizer와 같이 trim()처럼 버린다
+ * - 줄 구분자는 LinePipe와 같다 (\r\n, \n, \r, U+2028, U+2029, U+0085), 줄마다 System.lineSeparator()를 쓴다
+ * - 출력 버퍼가 모자라면 두 배 크기의 같은 종류(다이렉트/힙) 버퍼로 옮긴다
+ * - 내부 버퍼를 재사용하므로 스레드마다 별도 인스턴스를 사용해야 한다
+ */
+public class ByteTokenizer {
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+
+    private char[] token = new char[64];
+    private final StringBuilder vectors = new StringBuilder(256);
+    private ByteBuffer out;
+    private int lines;
+
+    public ByteTokenizer(ByteBuffer out) {
+        this.out = out;
+    }
+
+    /**
+     * in의 [from, to) 구간(UTF-8)의 각 줄을 변환해 출력 버퍼에 덧붙인다
+     * 구간 끝의 줄바꿈 없는 마지막 줄도 한 줄로 처리한다
+     */
+    public void transform(ByteBuffer in, int from, int to, VectorDictionary dictionary) {
+        int lineStart = from;
+        int i = from;
+        while (i < to) {
+            byte b = in.get(i);
+            // 줄바꿈이 아닌 ASCII는 바로 넘긴다
+            if (b >= 0 && b != '\n' && b != '\r') {
+                i++;
+                continue;
+            }
+            int separator = separatorLength(in, i, to);
+            if (separator == 0) {
+                i++;
+                continue;
+            }
+            line(in, lineStart, i, dictionary);
+            i += separator;
+            lineStart = i;
+        }
+        if (lineStart < to) {
+            line(in, lineStart, to, dictionary);
+        }
+    }
+
+    /**
+     * 지금까지 쓴 출력 버퍼 (쓰기 위치 = 출력 끝)
+     */
+    public ByteBuffer output() {
+        return out;
+    }
+
+    public int lines() {
+        return lines;
+    }
+
+    // i 위치의 줄 구분자 바이트 수 (구분자가 아니면 0)
+    private static int separatorLength(ByteBuffer in, int i, int to) {
+        byte b = in.get(i);
+        if (b == '\n') {
+            return 1;
+        }
+        if (b == '\r') {
+            return i + 1 < to && in.get(i + 1) == '\n' ? 2 : 1;
+        }
+        // U+0085 = C2 85, U+2028/U+2029 = E2 80 A8/A9
+        if (b == (byte) 0xC2) {
+            return i + 1 < to && in.get(i + 1) == (byte) 0x85 ? 2 : 0;
+        }
+        if (b == (byte) 0xE2 && i + 2 < to && in.get(i + 1) == (byte) 0x80) {
+            byte c = in.get(i + 2);
+            return c == (byte) 0xA8 || c == (byte) 0xA9 ? 3 : 0;
+        }
+        return 0;
+    }
+
+    private void line(ByteBuffer in, int start, int end, VectorDictionary dictionary) {
+        vectors.setLength(0);
+        int i = start;
+        // String.trim과 같은 범위 (ASCII가 아닌 바이트는 음수)
+        while (i < end && isTrimmed(in.get(i))) {
+            i++;
+        }
+        while (end > i && isTrimmed(in.get(end - 1))) {
+            end--;
+        }
+        while (i < end) {
+            // 공백 건너뛰기
+            while (i < end && isWhitespace(in.get(i))) {
+                i++;
+            }
+            if (i >= end) {
+                break;
+            }
+            // ASCII라면 읽으면서 바로 소문자로 버퍼에 복사
+            int tokenStart = i;
+            int len = 0;
+            boolean ascii = true;
+            while (i < end) {
+                byte b = in.get(i);
+                if (isWhitespace(b)) {
+                    break;
+                }
+                if (b < 0) {
+                    ascii = false;
+                } else if (ascii) {
+                    if (len == token.length) {
+                        token = Arrays.copyOf(token, len * 2);
+                    }
+                    token[len++] = (char) (b >= 'A' && b <= 'Z' ? b + 32 : b);
+                }
+                i++;
+            }
+            if (!ascii) {
+                len = decode(in, tokenStart, i);
+            }
+            appendVector(dictionary, len);
+        }
+        write();
+        lines++;
+    }
+
+    private void appendVector(VectorDictionary dictionary, int len) {
+        int mark = vectors.length();
+        if (mark > 0) {
+            vectors.append(' ');
+        }
+        if (!dictionary.appendVector(token, 0, len, vectors)) {
+            vectors.setLength(mark);
+        }
+    }
+
+    // 토큰 [start, end)를 UTF-8 디코딩하며 소문자로 버퍼에 복사 (문자 단위 변환은 Tokenizer와 동일)
+    private int decode(ByteBuffer in, int start, int end) {
+        ensureToken(end - start);
+        int len = 0;
+        int i = start;
+        while (i < end) {
+            int b = in.get(i) & 0xFF;
+            if (b < 0x80) {
+                token[len++] = (char) (b >= 'A' && b <= 'Z' ? b + 32 : b);
+                i++;
+                continue;
+            }
+            int extra;
+            int cp;
+            int min;
+            if (b >= 0xC2 && b <= 0xDF) {
+                extra = 1;
+                cp = b & 0x1F;
+                min = 0x80;
+            } else if (b >= 0xE0 && b <= 0xEF) {
+                extra = 2;
+                cp = b & 0x0F;
+                min = 0x800;
+            } else if (b >= 0xF0 && b <= 0xF4) {
+                extra = 3;
+                cp = b & 0x07;
+                min = 0x10000;
+            } else {
+                return decodeFallback(in, start, end);
+            }
+            if (i + extra >= end) {
+                return decodeFallback(in, start, end);
+            }
+            for (int k = 1; k <= extra; k++) {
+                int c = in.get(i + k) & 0xFF;
+                if ((c & 0xC0) != 0x80) {
+                    return decodeFallback(in, start, end);
+                }
+                cp = (cp << 6) | (c & 0x3F);
+            }
+            if (cp < min || cp > Character.MAX_CODE_POINT || (cp >= Character.MIN_SURROGATE
+                    && cp <= Character.MAX_SURROGATE)) {
+                return decodeFallback(in, start, end);
+            }
+            if (cp < 0x10000) {
+                token[len++] = Character.toLowerCase((char) cp);
+            } else {
+                // 보조 문자는 서로게이트 쌍 그대로 (Character.toLowerCase(char)는 서로게이트를 바꾸지 않는다)
+                token[len++] = Character.highSurrogate(cp);
+                token[len++] = Character.lowSurrogate(cp);
+            }
+            i += extra + 1;
+        }
+        return len;
+    }
+
+    // 잘못된 UTF-8 바이트열: String 디코딩과 같은 치환 규칙을 따른다 (드문 경우)
+    private int decodeFallback(ByteBuffer in, int start, int end) {
+        byte[] bytes = new byte[end - start];
+        in.get(start, bytes);
+        String text = new String(bytes, StandardCharsets.UTF_8);
+        ensureToken(text.length());
+        for (int j = 0; j < text.length(); j++) {
+            char c = text.charAt(j);
+            token[j] = c < 0x80 ? (char) (c >= 'A' && c <= 'Z' ? c + 32 : c) : Character.toLowerCase(c);
+        }
+        return text.length();
+    }
+
+    private void ensureToken(int length) {
+        if (token.length < length) {
+            token = Arrays.copyOf(token, Math.max(length, token.length * 2));
+        }
+    }
+
+    // 변환 결과 한 줄을 UTF-8로 인코딩해 출력 (짝이 없는 서로게이트는 인코더 기본값과 같이 '?')
+    private void write() {
+        int length = vectors.length();
+        ensureOutput(length * 3 + LINE_SEPARATOR.length);
+        ByteBuffer dst = out;
+        for (int j = 0; j < length; j++) {
+            char c = vectors.charAt(j);
+            if (c < 0x80) {
+                dst.put((byte) c);
+            } else if (c < 0x800) {
+                dst.put((byte) (0xC0 | (c >> 6)));
+                dst.put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isSurrogate(c)) {
+                char low = j + 1 < length ? vectors.charAt(j + 1) : 0;
+                if (Character.isHighSurrogate(c) && Character.isLowSurrogate(low)) {
+                    int cp = Character.toCodePoint(c, low);
+                    dst.put((byte) (0xF0 | (cp >> 18)));
+                    dst.put((byte) (0x80 | ((cp >> 12) & 0x3F)));
+                    dst.put((byte) (0x80 | ((cp >> 6) & 0x3F)));
+                    dst.put((byte) (0x80 | (cp & 0x3F)));
+                    j++;
+                } else {
+                    dst.put((byte) '?');
+                }
+            } else {
+                dst.put((byte) (0xE0 | (c >> 12)));
+                dst.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                dst.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+        dst.put(LINE_SEPARATOR);
+    }
+
+    private void ensureOutput(int needed) {
+        if (out.remaining() >= needed) {
+            return;
+        }
+        int capacity = Math.max(out.position() + needed, out.capacity() * 2);
+        ByteBuffer grown = out.isDirect() ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+        out.flip();
+        grown.put(out);
+        out = grown;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || (b >= '\t' && b <= '\r');
+    }
+
+    private static boolean isTrimmed(byte b) {
+        return b >= 0 && b <= ' ';
+    }
+}
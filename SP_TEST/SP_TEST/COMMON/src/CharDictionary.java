@@ -0,0 +1,164 @@
+/**
+ * 문자 구간(char[] + offset + length)으로 조회 가능한 문자열 사전
+ * - 개방 주소법(linear probing) 해시 테이블, 키/값은 String으로 저장
+ * - 조회 시 토큰마다 String을 만들지 않고 버퍼의 문자 구간을 그대로 비교한다
+ * - 해시는 String.hashCode와 같은 방식으로 계산하므로 저장 키와 조회 구간의 해시가 일치한다
+ * - 키만 넣으면(add) 집합으로도 사용할 수 있다 (불용어 목록 등)
+ */
+public class CharDictionary implements VectorDictionary {
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private String[] keys;
+    private String[] values;
+    private int mask;
+    private int size;
+
+    public CharDictionary() {
+        this(16);
+    }
+
+    public CharDictionary(int expectedSize) {
+        int capacity = tableSizeFor(expectedSize * 2);
+        this.keys = new String[capacity];
+        this.values = new String[capacity];
+        this.mask = capacity - 1;
+    }
+
+    @Override
+    public void put(String key, String value) {
+        if ((size + 1) * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+        int i = spread(key.hashCode()) & mask;
+        while (keys[i] != null) {
+            if (keys[i].equals(key)) {
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        size++;
+    }
+
+    /**
+     * 문자 구간에 해당하는 값 조회 (없거나 제외 항목이면 null)
+     */
+    public String get(char[] buf, int off, int len) {
+        int h = 0;
+        for (int j = 0; j < len; j++) {
+            h = 31 * h + buf[off + j];
+        }
+        int i = spread(h) & mask;
+        String key;
+        while ((key = keys[i]) != null) {
+            if (matches(key, buf, off, len)) {
+                return values[i];
+            }
+            i = (i + 1) & mask;
+        }
+        return null;
+    }
+
+    public String get(String key) {
+        return get(key.toCharArray(), 0, key.length());
+    }
+
+    /**
+     * 집합으로 사용할 때 키 추가
+     */
+    public void add(String key) {
+        put(key, key);
+    }
+
+    public boolean contains(char[] buf, int off, int len) {
+        return get(buf, off, len) != null;
+    }
+
+    @Override
+    public boolean appendVector(char[] word, int off, int len, StringBuilder out) {
+        String value = get(word, off, len);
+        if (value == null) {
+            return false;
+        }
+        out.append(value);
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 테이블 배열 + 키/값 String 객체 크기 추정 (압축 OOP, Compact Strings 기준)
+     */
+    @Override
+    public long footprintBytes() {
+        long bytes = 2L * (16 + 4L * keys.length);
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                bytes += stringBytes(keys[i]);
+                if (values[i] != null && values[i] != keys[i]) {
+                    bytes += stringBytes(values[i]);
+                }
+            }
+        }
+        return bytes;
+    }
+
+    static long stringBytes(String s) {
+        boolean latin1 = true;
+        for (int i = 0; i < s.length() && latin1; i++) {
+            latin1 = s.charAt(i) < 256;
+        }
+        long array = 16 + (latin1 ? s.length() : 2L * s.length());
+        return 24 + ((array + 7) & ~7L);
+    }
+
+    private static boolean matches(String key, char[] buf, int off, int len) {
+        if (key.length() != len) {
+            return false;
+        }
+        for (int j = 0; j < len; j++) {
+            if (key.charAt(j) != buf[off + j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void resize(int capacity) {
+        if (capacity > MAX_CAPACITY) {
+            throw new IllegalStateException("CharDictionary is full: " + size);
+        }
+        String[] oldKeys = keys;
+        String[] oldValues = values;
+        keys = new String[capacity];
+        values = new String[capacity];
+        mask = capacity - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] != null) {
+                int i = spread(oldKeys[j].hashCode()) & mask;
+                while (keys[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    private static int tableSizeFor(int n) {
+        int capacity = 16;
+        while (capacity < n && capacity < MAX_CAPACITY) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
@@ -0,0 +1,341 @@
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * 말뭉치 파일 일괄 변환 (파일 -> 토크나이저 -> 파일/표준 출력, 병렬)
+ * - 입력 파일을 줄바꿈 위치에 맞춘 바이트 구간으로 나누고, 구간별 디코딩/변환/인코딩을 ForkJoinPool에서 병렬로 수행한다
+ * - 결과는 구간 순서대로 출력한다 (순서 재조립): 제출한 구간을 큐에 넣고 앞에서부터 join하여 쓰며,
+ *   앞서 제출할 수 있는 구간 수를 병렬도의 몇 배로 제한해 메모리 사용량을 구간 크기 * 창 크기로 묶는다
+ * - 줄 구분/결과는 LinePipe(표준 입력 모드)와 같다 (구간 경계는 항상 \n 직후이므로 \r\n이 나뉘지 않는다)
+ * - 문자셋은 JVM 기본 문자셋을 사용한다 (줄바꿈이 1바이트인 ASCII 호환 문자셋 가정, DictionaryLoader와 동일)
+ * - 기본 문자셋이 UTF-8이면 매핑 모드로 동작한다: 입력을 MappedByteBuffer로 읽고 ByteTokenizer로 바이트 위에서 변환해
+ *   다이렉트 버퍼에 쓰므로 문자 디코딩/인코딩과 파일 읽기 복사가 없다 (-Dcorpus.batch.mapped=false 이면 스트림 모드)
+ *
+ * 병렬도는 -Dcorpus.batch.parallelism (기본: 공용 ForkJoinPool), 구간 크기는 -Dcorpus.batch.chunkBytes (기본 4MB)
+ */
+public class CorpusBatch {
+    private static final int DEFAULT_CHUNK_BYTES = 4 << 20;
+    // 매핑 영역 하나의 최대 크기 (MappedByteBuffer는 int 범위)
+    private static final int MAX_REGION_BYTES = 1 << 30;
+    // 병렬도당 앞서 제출해 둘 구간 수
+    private static final int WINDOW_PER_WORKER = 2;
+
+    private CorpusBatch() {
+    }
+
+    /**
+     * 처리 결과
+     */
+    public static final class Result {
+        private final long lines;
+        private final long bytesIn;
+        private final long bytesOut;
+        private final long nanos;
+
+        private Result(long lines, long bytesIn, long bytesOut, long nanos) {
+            this.lines = lines;
+            this.bytesIn = bytesIn;
+            this.bytesOut = bytesOut;
+            this.nanos = nanos;
+        }
+
+        public long lines() {
+            return lines;
+        }
+
+        public long bytesIn() {
+            return bytesIn;
+        }
+
+        public long bytesOut() {
+            return bytesOut;
+        }
+
+        public long nanos() {
+            return nanos;
+        }
+
+        public double linesPerSecond() {
+            return lines * 1e9 / Math.max(1, nanos);
+        }
+
+        /**
+         * 입력 기준 처리량 (MB/s)
+         */
+        public double megabytesPerSecond() {
+            return bytesIn / (1024.0 * 1024.0) * 1e9 / Math.max(1, nanos);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d lines, %.1f MB -> %.1f MB, %.2f s, %.0f lines/s, %.1f MB/s", lines,
+                    bytesIn / (1024.0 * 1024.0), bytesOut / (1024.0 * 1024.0), nanos / 1e9, linesPerSecond(),
+                    megabytesPerSecond());
+        }
+    }
+
+    /**
+     * input 파일의 각 줄을 변환해 output 파일에 쓴다 (output이 null이면 표준 출력)
+     */
+    public static Result run(String input, String output, VectorDictionary dictionary) throws IOException {
+        int parallelism = Integer.getInteger("corpus.batch.parallelism", 0);
+        int chunkBytes = Integer.getInteger("corpus.batch.chunkBytes", DEFAULT_CHUNK_BYTES);
+        ForkJoinPool pool = parallelism > 0 ? new ForkJoinPool(parallelism) : ForkJoinPool.commonPool();
+        try (FileChannel in = FileChannel.open(Path.of(input), StandardOpenOption.READ);
+                WritableByteChannel out = output == null ? new FileOutputStream(FileDescriptor.out).getChannel()
+                        : FileChannel.open(Path.of(output), StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                                StandardOpenOption.TRUNCATE_EXISTING)) {
+            return run(in, out, dictionary, pool, chunkBytes);
+        } finally {
+            if (pool != ForkJoinPool.commonPool()) {
+                pool.shutdown();
+            }
+        }
+    }
+
+    public static Result run(FileChannel in, WritableByteChannel out, VectorDictionary dictionary, ForkJoinPool pool,
+            int chunkBytes) throws IOException {
+        Charset charset = Charset.defaultCharset();
+        boolean mapped = Boolean.parseBoolean(System.getProperty("corpus.batch.mapped", "true"))
+                && charset.equals(StandardCharsets.UTF_8);
+        if (mapped) {
+            return runMapped(in, out, dictionary, pool, chunkBytes,
+                    Integer.getInteger("corpus.batch.mapRegionBytes", MAX_REGION_BYTES));
+        }
+        return runStream(in, out, dictionary, pool, chunkBytes, charset);
+    }
+
+    // 스트림 모드: 구간을 읽어 디코딩 -> Tokenizer -> 인코딩
+    private static Result runStream(FileChannel in, WritableByteChannel out, VectorDictionary dictionary,
+            ForkJoinPool pool, int chunkBytes, Charset charset) throws IOException {
+        long started = System.nanoTime();
+        long fileSize = in.size();
+        OrderedWriter writer = new OrderedWriter(out, pool.getParallelism());
+        ByteBuffer probe = ByteBuffer.allocate(8192);
+        long position = 0;
+        while (position < fileSize) {
+            long start = position;
+            long end = nextLineStart(in, Math.min(fileSize, start + Math.max(1, chunkBytes)), fileSize, probe);
+            writer.submit(pool.submit(() -> transform(in, start, end, charset, dictionary)));
+            position = end;
+        }
+        writer.finish();
+        return new Result(writer.lines, fileSize, writer.bytesOut, System.nanoTime() - started);
+    }
+
+    // 매핑 모드: 파일을 줄 경계에 맞춘 영역 단위로 메모리 매핑하고, 구간을 바이트 그대로 ByteTokenizer로 변환해
+    // 다이렉트 버퍼에 쓴다 (출력 버퍼는 재사용)
+    private static Result runMapped(FileChannel in, WritableByteChannel out, VectorDictionary dictionary,
+            ForkJoinPool pool, int chunkBytes, int regionBytes) throws IOException {
+        long started = System.nanoTime();
+        long fileSize = in.size();
+        int outputBytes = Math.max(1 << 16, chunkBytes + (chunkBytes >> 2));
+        OrderedWriter writer = new OrderedWriter(out, pool.getParallelism());
+        long regionStart = 0;
+        while (regionStart < fileSize) {
+            long remaining = fileSize - regionStart;
+            MappedByteBuffer region = in.map(FileChannel.MapMode.READ_ONLY, regionStart,
+                    Math.min(remaining, regionBytes));
+            int limit = region.capacity();
+            if (limit < remaining) {
+                // 영역 끝을 마지막 줄바꿈 직후로 맞춘다
+                limit = lastLineEnd(region, limit);
+                if (limit == 0) {
+                    throw new IOException("line longer than " + regionBytes + " bytes at offset " + regionStart);
+                }
+            }
+            int position = 0;
+            while (position < limit) {
+                int start = position;
+                int end = nextLineStart(region, (int) Math.min(limit, (long) start + Math.max(1, chunkBytes)), limit);
+                writer.submit(pool.submit(() -> transform(region, start, end, dictionary, writer.buffer(outputBytes))));
+                position = end;
+            }
+            regionStart += limit;
+        }
+        writer.finish();
+        return new Result(writer.lines, fileSize, writer.bytesOut, System.nanoTime() - started);
+    }
+
+    // 구간 하나의 변환 결과 (출력 버퍼, 읽기 위치 = 0, 한계 = 출력 끝)
+    private static final class Chunk {
+        private final ByteBuffer output;
+        private final int lines;
+
+        private Chunk(ByteBuffer output, int lines) {
+            this.output = output;
+            this.lines = lines;
+        }
+    }
+
+    /**
+     * 순서 재조립 출력기
+     * - 제출한 구간 작업을 큐에 넣고, 창(병렬도 * WINDOW_PER_WORKER)이 차면 가장 앞 작업을 join해 출력한다
+     * - 다 쓴 다이렉트 출력 버퍼는 풀에 돌려 다음 구간이 재사용한다
+     */
+    private static final class OrderedWriter {
+        private final WritableByteChannel out;
+        private final int window;
+        private final ArrayDeque<ForkJoinTask<Chunk>> pending;
+        private final ConcurrentLinkedQueue<ByteBuffer> buffers = new ConcurrentLinkedQueue<>();
+        private long lines;
+        private long bytesOut;
+
+        private OrderedWriter(WritableByteChannel out, int parallelism) {
+            this.out = out;
+            this.window = Math.max(2, parallelism * WINDOW_PER_WORKER);
+            this.pending = new ArrayDeque<>(window);
+        }
+
+        // 작업 스레드에서 호출: 재사용 출력 버퍼 (없으면 새로 할당)
+        private ByteBuffer buffer(int capacity) {
+            ByteBuffer buffer = buffers.poll();
+            return buffer != null ? buffer : ByteBuffer.allocateDirect(capacity);
+        }
+
+        private void submit(ForkJoinTask<Chunk> task) throws IOException {
+            if (pending.size() >= window) {
+                writeHead();
+            }
+            pending.add(task);
+        }
+
+        private void finish() throws IOException {
+            while (!pending.isEmpty()) {
+                writeHead();
+            }
+        }
+
+        private void writeHead() throws IOException {
+            Chunk chunk = join(pending.poll());
+            ByteBuffer output = chunk.output;
+            lines += chunk.lines;
+            bytesOut += output.remaining();
+            while (output.hasRemaining()) {
+                out.write(output);
+            }
+            if (output.isDirect()) {
+                output.clear();
+                buffers.offer(output);
+            }
+        }
+    }
+
+    private static long nextLineStart(FileChannel channel, long position, long fileSize, ByteBuffer window)
+            throws IOException {
+        long p = position;
+        while (p < fileSize) {
+            window.clear();
+            int n = channel.read(window, p);
+            if (n <= 0) {
+                break;
+            }
+            for (int i = 0; i < n; i++) {
+                if (window.get(i) == '\n') {
+                    return p + i + 1;
+                }
+            }
+            p += n;
+        }
+        return fileSize;
+    }
+
+    private static int nextLineStart(ByteBuffer region, int position, int limit) {
+        for (int i = position; i < limit; i++) {
+            if (region.get(i) == '\n') {
+                return i + 1;
+            }
+        }
+        return limit;
+    }
+
+    // limit 이전 마지막 줄바꿈 직후 위치 (없으면 0)
+    private static int lastLineEnd(ByteBuffer region, int limit) {
+        for (int i = limit - 1; i >= 0; i--) {
+            if (region.get(i) == '\n') {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    private static Chunk transform(ByteBuffer region, int start, int end, VectorDictionary dictionary,
+            ByteBuffer output) {
+        ByteTokenizer tokenizer = new ByteTokenizer(output);
+        tokenizer.transform(region, start, end, dictionary);
+        return new Chunk(tokenizer.output().flip(), tokenizer.lines());
+    }
+
+    private static Chunk transform(FileChannel channel, long start, long end, Charset charset,
+            VectorDictionary dictionary) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) (end - start));
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, start + buffer.position()) < 0) {
+                break;
+            }
+        }
+        buffer.flip();
+        CharBuffer decoded = charset.decode(buffer);
+        char[] text = decoded.array();
+        int offset = decoded.arrayOffset() + decoded.position();
+        int length = offset + decoded.remaining();
+        Tokenizer tokenizer = new Tokenizer();
+        LinePipe.Line line = new LinePipe.Line();
+        String separator = System.lineSeparator();
+        StringBuilder result = new StringBuilder(decoded.remaining());
+        int lineStart = offset;
+        int lines = 0;
+        int i = offset;
+        while (i < length) {
+            char c = text[i];
+            if (!isLineSeparator(c)) {
+                i++;
+                continue;
+            }
+            line.set(text, lineStart, i - lineStart);
+            result.append(tokenizer.process(line, dictionary)).append(separator);
+            lines++;
+            i++;
+            if (c == '\r' && i < length && text[i] == '\n') {
+                i++;
+            }
+            lineStart = i;
+        }
+        // 파일 끝의 줄바꿈 없는 마지막 줄
+        if (lineStart < length) {
+            line.set(text, lineStart, length - lineStart);
+            result.append(tokenizer.process(line, dictionary)).append(separator);
+            lines++;
+        }
+        return new Chunk(charset.encode(CharBuffer.wrap(result)), lines);
+    }
+
+    private static boolean isLineSeparator(char c) {
+        return c == '\n' || c == '\r' || c == '\u2028' || c == '\u2029' || c == '\u0085';
+    }
+
+    private static <T> T join(ForkJoinTask<T> task) throws IOException {
+        try {
+            return task.join();
+        } catch (RuntimeException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 사전 바이너리 이미지 (DICTIONARY.TXT + STOPWORD.TXT -> DICTIONARY.BIN)
+ * - 컴파일: 텍스트 사전을 OffHeapDictionary로 만든 뒤 테이블/데이터 영역을 그대로 파일에 기록
+ *   벡터가 불용어인 항목은 이때 제외 표시하므로 실행 시 불용어 목록이 필요 없다
+ * - 로드: FileChannel.map으로 매핑만 하므로 사전 크기와 관계없이 바로 사용 가능하고,
+ *   같은 호스트의 여러 JVM이 OS 페이지 캐시를 공유한다
+ *
+ * 파일 구조 (big-endian)
+ *   헤더 64바이트: magic(4) version(4) entries(4) slots(4) dataBytes(4) excluded(4) 예약(40)
+ *   테이블 영역: slots * 8 바이트
+ *   데이터 영역: dataBytes 바이트
+ *
+ * 컴파일은 임시 파일에 쓴 뒤 rename으로 교체하므로, 실행 중인 프로세스가 매핑한 기존 이미지는 그대로 유효하다
+ *
+ * 컴파일 실행: java DictionaryImage DICTIONARY.TXT STOPWORD.TXT DICTIONARY.BIN
+ */
+public class DictionaryImage {
+    private static final int MAGIC = 0x56444943; // "VDIC"
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 64;
+
+    private final OffHeapDictionary dictionary;
+    private final int excludedCount;
+
+    private DictionaryImage(OffHeapDictionary dictionary, int excludedCount) {
+        this.dictionary = dictionary;
+        this.excludedCount = excludedCount;
+    }
+
+    public OffHeapDictionary dictionary() {
+        return dictionary;
+    }
+
+    /**
+     * 컴파일 시 불용어 벡터로 제외 표시된 항목 수
+     */
+    public int excludedCount() {
+        return excludedCount;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.out.println("사용법: java DictionaryImage <DICTIONARY.TXT> <STOPWORD.TXT|-> <DICTIONARY.BIN>");
+            return;
+        }
+        long start = System.nanoTime();
+        DictionaryImage image = compile(args[0], "-".equals(args[1]) ? null : args[1], args[2]);
+        System.out.printf("%s 생성 완료: %,d entries (불용어 벡터 제외 %,d건), %,d bytes, %.1f ms%n", args[2],
+                image.dictionary().size(), image.excludedCount(), new File(args[2]).length(),
+                (System.nanoTime() - start) / 1_000_000.0);
+    }
+
+    /**
+     * 텍스트 사전/불용어 파일을 바이너리 이미지로 변환
+     * @return 컴파일한 사전 (쓰기 가능한 off-heap 사본)
+     */
+    public static DictionaryImage compile(String dictionaryPath, String stopwordPath, String imagePath)
+            throws IOException {
+        Set<String> stopwords = new HashSet<>();
+        if (stopwordPath != null) {
+            try (BufferedReader br = new BufferedReader(new FileReader(stopwordPath))) {
+                String line;
+                while ((line = br.readLine()) != null) {
+                    stopwords.add(line.trim());
+                }
+            }
+        }
+        DictionaryLoader.Result<OffHeapDictionary> loaded = DictionaryLoader.load(dictionaryPath, stopwords,
+                OffHeapDictionary::new);
+        OffHeapDictionary dictionary = loaded.dictionary();
+        int excluded = loaded.excluded();
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC).putInt(VERSION).putInt(dictionary.size()).putInt(dictionary.slotCount())
+                .putInt((int) dictionary.dataBytes()).putInt(excluded);
+        header.clear();
+
+        // 매핑 중인 파일을 덮어쓰면(truncate) 기존 매핑 접근 시 SIGBUS가 나므로 새 파일로 교체
+        Path target = Path.of(imagePath).toAbsolutePath();
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            dictionary.writeTo(channel);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return new DictionaryImage(dictionary, excluded);
+    }
+
+    /**
+     * 바이너리 이미지를 메모리 매핑해 로드 (매핑은 채널을 닫아도 유지됨)
+     */
+    public static DictionaryImage load(String imagePath) throws IOException {
+        try (FileChannel channel = FileChannel.open(Path.of(imagePath), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) {
+                    break;
+                }
+            }
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+                throw new IOException("not a dictionary image: " + imagePath);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("unsupported dictionary image version: " + version);
+            }
+            int entries = header.getInt();
+            int slots = header.getInt();
+            int dataBytes = header.getInt();
+            int excluded = header.getInt();
+
+            long tableOffset = HEADER_BYTES;
+            long dataOffset = tableOffset + (long) slots * 8;
+            if (channel.size() < dataOffset + dataBytes) {
+                throw new IOException("truncated dictionary image: " + imagePath);
+            }
+            OffHeapDictionary dictionary = OffHeapDictionary.map(channel, tableOffset, slots, dataOffset, dataBytes,
+                    entries);
+            return new DictionaryImage(dictionary, excluded);
+        }
+    }
+
+    /**
+     * 이미지가 존재하고 원본 텍스트 파일들보다 최신인지 확인
+     */
+    public static boolean isUpToDate(String imagePath, String... sourcePaths) {
+        File image = new File(imagePath);
+        if (!image.isFile()) {
+            return false;
+        }
+        for (String source : sourcePaths) {
+            File file = new File(source);
+            if (file.isFile() && file.lastModified() > image.lastModified()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
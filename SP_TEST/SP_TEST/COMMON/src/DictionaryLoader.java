@@ -0,0 +1,238 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.IntFunction;
+
+/**
+ * 병렬 사전 로더 (word#vector 형식 텍스트 파일)
+ * - 파일을 줄바꿈 위치에 맞춘 바이트 구간으로 나누고, 구간별 디코딩/파싱을 ForkJoinPool에서 병렬로 수행한다
+ * - 전체 항목 수를 안 뒤 그 크기로 미리 만든 사전에 구간 순서대로 넣으므로 재해시가 없고,
+ *   같은 단어가 여러 줄에 있으면 기존 순차 로더처럼 마지막 줄이 이긴다
+ * - 줄 판정은 BufferedReader.readLine + split("#") 후 parts.length == 2 와 같다
+ * - 문자셋은 FileReader와 같이 JVM 기본 문자셋을 사용한다 (줄바꿈이 1바이트인 ASCII 호환 문자셋 가정)
+ *
+ * 병렬도는 -Ddictionary.loader.parallelism (기본: 공용 ForkJoinPool)으로 지정한다
+ */
+public class DictionaryLoader {
+    // 이보다 작은 파일은 나누지 않고 한 구간으로 처리
+    private static final int MIN_CHUNK_BYTES = 1 << 20;
+    // 구간 하나의 최대 크기 (byte[] 하나로 읽으므로 int 범위 안에서 제한)
+    private static final int MAX_CHUNK_BYTES = 64 << 20;
+
+    private DictionaryLoader() {
+    }
+
+    /**
+     * 로드 결과
+     */
+    public static final class Result<D extends VectorDictionary> {
+        private final D dictionary;
+        private final int excluded;
+        private final long bytes;
+
+        private Result(D dictionary, int excluded, long bytes) {
+            this.dictionary = dictionary;
+            this.excluded = excluded;
+            this.bytes = bytes;
+        }
+
+        public D dictionary() {
+            return dictionary;
+        }
+
+        /**
+         * 벡터가 불용어라 제외 표시한 항목 수
+         */
+        public int excluded() {
+            return excluded;
+        }
+
+        /**
+         * 읽은 파일 크기 (바이트)
+         */
+        public long bytes() {
+            return bytes;
+        }
+    }
+
+    /**
+     * 사전 파일을 병렬로 읽어 factory(항목 수)로 만든 사전에 적재
+     * @param stopwords 벡터 기준 불용어 (해당 항목은 null 벡터로 제외 표시, 없으면 null)
+     */
+    public static <D extends VectorDictionary> Result<D> load(String path, Set<String> stopwords,
+            IntFunction<D> factory) throws IOException {
+        int parallelism = Integer.getInteger("dictionary.loader.parallelism", 0);
+        ForkJoinPool pool = parallelism > 0 ? new ForkJoinPool(parallelism) : ForkJoinPool.commonPool();
+        try {
+            return load(path, stopwords, factory, pool);
+        } finally {
+            if (pool != ForkJoinPool.commonPool()) {
+                pool.shutdown();
+            }
+        }
+    }
+
+    public static <D extends VectorDictionary> Result<D> load(String path, Set<String> stopwords,
+            IntFunction<D> factory, ForkJoinPool pool) throws IOException {
+        Charset charset = Charset.defaultCharset();
+        try (FileChannel channel = FileChannel.open(Path.of(path), StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            long[] bounds = split(channel, fileSize, pool.getParallelism());
+
+            List<ForkJoinTask<Chunk>> tasks = new ArrayList<>(bounds.length - 1);
+            for (int i = 0; i + 1 < bounds.length; i++) {
+                long start = bounds[i];
+                long end = bounds[i + 1];
+                tasks.add(pool.submit(() -> parse(channel, start, end, charset, stopwords)));
+            }
+            List<Chunk> chunks = new ArrayList<>(tasks.size());
+            int records = 0;
+            int excluded = 0;
+            for (ForkJoinTask<Chunk> task : tasks) {
+                Chunk chunk = join(task);
+                chunks.add(chunk);
+                records += chunk.count;
+                excluded += chunk.excluded;
+            }
+
+            // 구간 순서대로 병합 (중복 단어는 뒤 구간이 덮어씀)
+            D dictionary = factory.apply(Math.max(16, records));
+            for (Chunk chunk : chunks) {
+                for (int i = 0; i < chunk.count; i++) {
+                    dictionary.put(chunk.words[i], chunk.vectors[i]);
+                }
+            }
+            return new Result<>(dictionary, excluded, fileSize);
+        }
+    }
+
+    // 구간 하나의 파싱 결과 (vectors[i] == null 이면 제외 항목)
+    private static final class Chunk {
+        private String[] words = new String[1024];
+        private String[] vectors = new String[1024];
+        private int count;
+        private int excluded;
+
+        private void add(String word, String vector) {
+            if (count == words.length) {
+                words = Arrays.copyOf(words, count * 2);
+                vectors = Arrays.copyOf(vectors, count * 2);
+            }
+            words[count] = word;
+            vectors[count] = vector;
+            count++;
+        }
+    }
+
+    // 대략 같은 크기의 구간 경계를 잡고, 각 경계를 다음 줄바꿈 직후로 옮김
+    private static long[] split(FileChannel channel, long fileSize, int parallelism) throws IOException {
+        long target = Math.max(MIN_CHUNK_BYTES, Math.min(MAX_CHUNK_BYTES, fileSize / (parallelism * 4L) + 1));
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        ByteBuffer window = ByteBuffer.allocate(8192);
+        long position = target;
+        while (position < fileSize) {
+            long boundary = nextLineStart(channel, position, fileSize, window);
+            if (boundary >= fileSize) {
+                break;
+            }
+            bounds.add(boundary);
+            position = boundary + target;
+        }
+        bounds.add(fileSize);
+        long[] result = new long[bounds.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = bounds.get(i);
+        }
+        return result;
+    }
+
+    private static long nextLineStart(FileChannel channel, long position, long fileSize, ByteBuffer window)
+            throws IOException {
+        long p = position;
+        while (p < fileSize) {
+            window.clear();
+            int n = channel.read(window, p);
+            if (n <= 0) {
+                break;
+            }
+            for (int i = 0; i < n; i++) {
+                if (window.get(i) == '\n') {
+                    return p + i + 1;
+                }
+            }
+            p += n;
+        }
+        return fileSize;
+    }
+
+    private static Chunk parse(FileChannel channel, long start, long end, Charset charset, Set<String> stopwords)
+            throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) (end - start));
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, start + buffer.position()) < 0) {
+                break;
+            }
+        }
+        String text = new String(buffer.array(), 0, buffer.position(), charset);
+        Chunk chunk = new Chunk();
+        int length = text.length();
+        int lineStart = 0;
+        for (int i = 0; i <= length; i++) {
+            // readLine과 같이 \n, \r 모두 줄 끝으로 처리 (\r\n 사이의 빈 줄은 항목이 아님)
+            if (i == length || text.charAt(i) == '\n' || text.charAt(i) == '\r') {
+                parseLine(text, lineStart, i, chunk, stopwords);
+                lineStart = i + 1;
+            }
+        }
+        return chunk;
+    }
+
+    // split("#")의 결과가 [word, vector]인 줄만 받음: 두 번째 필드가 비어 있지 않고, 그 뒤 필드는 모두 비어 있어야 함
+    private static void parseLine(String text, int start, int end, Chunk chunk, Set<String> stopwords) {
+        int first = start;
+        while (first < end && text.charAt(first) != '#') {
+            first++;
+        }
+        int vectorEnd = first + 1;
+        while (vectorEnd < end && text.charAt(vectorEnd) != '#') {
+            vectorEnd++;
+        }
+        if (vectorEnd >= end + 1 || vectorEnd == first + 1) {
+            return;
+        }
+        for (int i = vectorEnd; i < end; i++) {
+            if (text.charAt(i) != '#') {
+                return;
+            }
+        }
+        String word = text.substring(start, first);
+        String vector = text.substring(first + 1, vectorEnd);
+        if (stopwords != null && stopwords.contains(vector)) {
+            chunk.add(word, null);
+            chunk.excluded++;
+        } else {
+            chunk.add(word, vector);
+        }
+    }
+
+    private static <T> T join(ForkJoinTask<T> task) throws IOException {
+        try {
+            return task.join();
+        } catch (RuntimeException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
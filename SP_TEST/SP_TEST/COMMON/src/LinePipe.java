@@ -0,0 +1,167 @@
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * 줄 단위 입력 -> 토크나이저 -> 줄 단위 출력 일괄 처리 (SP_TEST, SP_TEST2 공용)
+ * - 입력은 큰 char 버퍼로 읽고 줄을 버퍼 위의 구간으로 토크나이저에 넘기므로 줄마다 String을 만들지 않는다
+ * - 출력은 버퍼링된 PrintWriter에 쓰고, 입력에 바로 읽을 데이터가 없을 때(다음 입력을 기다리기 직전)와
+ *   종료 시에만 flush한다 -> 파일/파이프 입력은 큰 단위로 쓰고, 대화형 입력은 줄마다 바로 응답한다
+ * - 줄 구분자는 Scanner.nextLine과 같다 (\r\n, \n, \r, U+2028, U+2029, U+0085)
+ * - EOF에서 정상 종료한다 (마지막 줄에 줄바꿈이 없어도 처리), 출력이 닫히면(| head 등) 읽기를 멈춘다
+ * - 문자셋은 Scanner(System.in)/System.out과 같이 JVM 기본 문자셋을 사용한다
+ */
+public class LinePipe {
+    private static final int READ_BUFFER = 1 << 20;
+    private static final int WRITE_BUFFER = 1 << 16;
+
+    private LinePipe() {
+    }
+
+    /**
+     * 표준 입력의 각 줄을 변환해 표준 출력으로 쓴다
+     * @return 처리한 줄 수
+     */
+    public static long run(VectorDictionary dictionary) throws IOException {
+        Charset charset = Charset.defaultCharset();
+        Reader in = new InputStreamReader(new FileInputStream(FileDescriptor.in), charset);
+        PrintWriter out = new PrintWriter(new BufferedWriter(
+                new OutputStreamWriter(new FileOutputStream(FileDescriptor.out), charset), WRITE_BUFFER));
+        return run(in, out, dictionary);
+    }
+
+    /**
+     * in의 각 줄을 변환해 out에 쓴다 (in은 EOF까지 읽고, out은 flush만 하고 닫지 않는다)
+     * @return 처리한 줄 수
+     */
+    public static long run(Reader in, PrintWriter out, VectorDictionary dictionary) throws IOException {
+        Tokenizer tokenizer = new Tokenizer();
+        Line line = new Line();
+        char[] buf = new char[READ_BUFFER];
+        char[] result = new char[256];
+        // 읽은 데이터 [start, end), 줄 구분자를 찾기 시작할 위치 scan
+        int start = 0;
+        int end = 0;
+        int scan = 0;
+        // 직전 버퍼가 \r로 끝나 다음 \n을 건너뛰어야 하는지
+        boolean skipLf = false;
+        long lines = 0;
+        while (true) {
+            int i = scan;
+            while (i < end && !isLineSeparator(buf[i])) {
+                i++;
+            }
+            if (i < end) {
+                line.set(buf, start, i - start);
+                result = write(out, tokenizer.process(line, dictionary), result);
+                lines++;
+                start = i + 1;
+                if (buf[i] == '\r') {
+                    if (start < end) {
+                        if (buf[start] == '\n') {
+                            start++;
+                        }
+                    } else {
+                        skipLf = true;
+                    }
+                }
+                scan = start;
+                continue;
+            }
+            // 버퍼의 줄을 모두 처리함: 다음 입력을 기다려야 하면 그 전에 출력을 내보낸다
+            if (!in.ready()) {
+                out.flush();
+                if (out.checkError()) {
+                    return lines;
+                }
+            }
+            // 남은 조각을 앞으로 옮기고, 한 줄이 버퍼보다 길면 버퍼를 늘린다
+            int pending = end - start;
+            if (start > 0) {
+                System.arraycopy(buf, start, buf, 0, pending);
+            } else if (pending == buf.length) {
+                buf = Arrays.copyOf(buf, buf.length * 2);
+            }
+            start = 0;
+            end = pending;
+            scan = pending;
+            int n = in.read(buf, end, buf.length - end);
+            if (n < 0) {
+                if (end > 0) {
+                    line.set(buf, 0, end);
+                    write(out, tokenizer.process(line, dictionary), result);
+                    lines++;
+                }
+                out.flush();
+                return lines;
+            }
+            end += n;
+            if (skipLf && n > 0) {
+                skipLf = false;
+                if (buf[start] == '\n') {
+                    start++;
+                    scan++;
+                }
+            }
+        }
+    }
+
+    // 변환 결과 한 줄 출력 (StringBuilder를 String으로 만들지 않고 재사용 배열로 복사)
+    private static char[] write(PrintWriter out, StringBuilder text, char[] chars) {
+        int length = text.length();
+        if (chars.length < length) {
+            chars = new char[Math.max(length, chars.length * 2)];
+        }
+        text.getChars(0, length, chars, 0);
+        out.write(chars, 0, length);
+        out.println();
+        return chars;
+    }
+
+    private static boolean isLineSeparator(char c) {
+        return c == '\n' || c == '\r' || c == '\u2028' || c == '\u2029' || c == '\u0085';
+    }
+
+    /**
+     * 버퍼 위의 한 줄 (토크나이저 입력용, 재사용, CorpusBatch에서도 사용)
+     */
+    static final class Line implements CharSequence {
+        private char[] buf;
+        private int offset;
+        private int length;
+
+        void set(char[] buf, int offset, int length) {
+            this.buf = buf;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return buf[offset + index];
+        }
+
+        @Override
+        public CharSequence subSequence(int from, int to) {
+            return new String(buf, offset + from, to - from);
+        }
+
+        @Override
+        public String toString() {
+            return new String(buf, offset, length);
+        }
+    }
+}
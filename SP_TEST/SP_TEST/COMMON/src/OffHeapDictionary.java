@@ -0,0 +1,276 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 다이렉트 메모리(off-heap) 기반 단어 사전
+ * - 키/값을 UTF-8 바이트로 데이터 영역에 이어 붙여 저장: [키 길이(2)][키 바이트][값 길이(2)][값 바이트]
+ *   (제외 항목은 값 길이 0xFFFF, 값 바이트 없음)
+ * - 인덱스는 개방 주소법 테이블, 슬롯(8바이트) = [해시(4)][데이터 위치 + 1 (4), 0이면 빈 슬롯]
+ * - 자바 객체를 항목 수만큼 만들지 않으므로 힙 사용량과 GC 부담이 거의 없다
+ * - 조회는 문자 구간을 UTF-8 바이트와 직접 비교하고, 값은 디코딩하며 StringBuilder에 바로 쓴다
+ * - 해시는 String.hashCode와 같은 방식(UTF-16 문자 기준)으로 계산한다
+ * - 테이블/데이터 영역을 그대로 파일에 쓰고(writeTo), 다시 메모리 매핑(map)해 읽기 전용으로 사용할 수 있다
+ */
+public class OffHeapDictionary implements VectorDictionary {
+    private static final int SLOT_BYTES = 8;
+    private static final int MAX_SLOTS = 1 << 28;
+    private static final int MAX_FIELD_BYTES = 0xFFFE;
+    // 값 길이 자리에 기록하는 제외 항목(불용어 벡터) 표시
+    private static final int EXCLUDED = 0xFFFF;
+
+    private ByteBuffer data;
+    private ByteBuffer table;
+    private int mask;
+    private int size;
+    private final boolean readOnly;
+
+    public OffHeapDictionary(int expectedSize) {
+        int slots = 16;
+        while (slots < expectedSize * 2 && slots < MAX_SLOTS) {
+            slots <<= 1;
+        }
+        this.table = ByteBuffer.allocateDirect(slots * SLOT_BYTES);
+        this.mask = slots - 1;
+        this.data = ByteBuffer.allocateDirect(Math.max(1024, expectedSize * 16));
+        this.readOnly = false;
+    }
+
+    private OffHeapDictionary(ByteBuffer table, ByteBuffer data, int size) {
+        this.table = table;
+        this.data = data;
+        this.mask = table.capacity() / SLOT_BYTES - 1;
+        this.size = size;
+        this.readOnly = true;
+    }
+
+    /**
+     * 파일의 테이블/데이터 영역을 읽기 전용으로 메모리 매핑 (파싱 없이 바로 조회 가능)
+     */
+    public static OffHeapDictionary map(FileChannel channel, long tableOffset, int slots, long dataOffset,
+            int dataBytes, int size) throws IOException {
+        if (Integer.bitCount(slots) != 1) {
+            throw new IOException("slot count must be a power of two: " + slots);
+        }
+        ByteBuffer table = channel.map(FileChannel.MapMode.READ_ONLY, tableOffset, (long) slots * SLOT_BYTES);
+        ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, dataOffset, dataBytes);
+        data.position(dataBytes);
+        return new OffHeapDictionary(table, data, size);
+    }
+
+    /**
+     * 테이블 영역 다음에 데이터 영역을 채널에 기록
+     */
+    public void writeTo(WritableByteChannel channel) throws IOException {
+        ByteBuffer t = table.duplicate();
+        t.clear();
+        while (t.hasRemaining()) {
+            channel.write(t);
+        }
+        ByteBuffer d = data.duplicate();
+        d.flip();
+        while (d.hasRemaining()) {
+            channel.write(d);
+        }
+    }
+
+    public int slotCount() {
+        return mask + 1;
+    }
+
+    @Override
+    public void put(String word, String vector) {
+        if (readOnly) {
+            throw new UnsupportedOperationException("memory-mapped dictionary is read-only");
+        }
+        byte[] key = word.getBytes(StandardCharsets.UTF_8);
+        byte[] value = vector == null ? null : vector.getBytes(StandardCharsets.UTF_8);
+        if (key.length > MAX_FIELD_BYTES || (value != null && value.length > MAX_FIELD_BYTES)) {
+            throw new IllegalArgumentException("entry too long: " + word);
+        }
+        if ((size + 1) * 2 > mask + 1) {
+            resizeTable((mask + 1) * 2);
+        }
+        int hash = word.hashCode();
+        int slot = findSlot(hash, word.toCharArray(), 0, word.length());
+        int position = append(key, value);
+        if (table.getInt(slot * SLOT_BYTES + 4) == 0) {
+            size++;
+        }
+        // 같은 키면 새 레코드를 가리키도록 교체 (이전 레코드는 데이터 영역에 남음)
+        table.putInt(slot * SLOT_BYTES, hash);
+        table.putInt(slot * SLOT_BYTES + 4, position + 1);
+    }
+
+    @Override
+    public boolean appendVector(char[] word, int off, int len, StringBuilder out) {
+        int h = 0;
+        for (int j = 0; j < len; j++) {
+            h = 31 * h + word[off + j];
+        }
+        int slot = findSlot(h, word, off, len);
+        int ref = table.getInt(slot * SLOT_BYTES + 4);
+        if (ref == 0) {
+            return false;
+        }
+        int position = ref - 1;
+        int keyLength = data.getShort(position) & 0xFFFF;
+        int valuePosition = position + 2 + keyLength;
+        int valueLength = data.getShort(valuePosition) & 0xFFFF;
+        if (valueLength == EXCLUDED) {
+            return false;
+        }
+        decodeUtf8(valuePosition + 2, valueLength, out);
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public long footprintBytes() {
+        return (long) table.capacity() + data.capacity();
+    }
+
+    /**
+     * 실제 사용 중인 데이터 영역 크기 (바이트)
+     */
+    public long dataBytes() {
+        return data.position();
+    }
+
+    // 해시와 키가 일치하는 슬롯, 없으면 처음 만난 빈 슬롯 반환
+    private int findSlot(int hash, char[] word, int off, int len) {
+        int i = spread(hash) & mask;
+        while (true) {
+            int base = i * SLOT_BYTES;
+            int ref = table.getInt(base + 4);
+            if (ref == 0) {
+                return i;
+            }
+            if (table.getInt(base) == hash && keyMatches(ref - 1, word, off, len)) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    // UTF-8 키 바이트와 UTF-16 문자 구간 비교 (ASCII는 바이트 단위로 바로 비교)
+    private boolean keyMatches(int position, char[] word, int off, int len) {
+        int keyLength = data.getShort(position) & 0xFFFF;
+        int p = position + 2;
+        int end = p + keyLength;
+        int j = off;
+        int charEnd = off + len;
+        while (p < end && j < charEnd) {
+            int b = data.get(p) & 0xFF;
+            if (b < 0x80) {
+                if (word[j] != b) {
+                    return false;
+                }
+                p++;
+                j++;
+                continue;
+            }
+            int codePoint;
+            if (b < 0xE0) {
+                codePoint = ((b & 0x1F) << 6) | (data.get(p + 1) & 0x3F);
+                p += 2;
+            } else if (b < 0xF0) {
+                codePoint = ((b & 0x0F) << 12) | ((data.get(p + 1) & 0x3F) << 6) | (data.get(p + 2) & 0x3F);
+                p += 3;
+            } else {
+                codePoint = ((b & 0x07) << 18) | ((data.get(p + 1) & 0x3F) << 12) | ((data.get(p + 2) & 0x3F) << 6)
+                        | (data.get(p + 3) & 0x3F);
+                p += 4;
+            }
+            if (codePoint >= 0x10000) {
+                if (j + 1 >= charEnd || word[j] != Character.highSurrogate(codePoint)
+                        || word[j + 1] != Character.lowSurrogate(codePoint)) {
+                    return false;
+                }
+                j += 2;
+            } else {
+                if (word[j] != codePoint) {
+                    return false;
+                }
+                j++;
+            }
+        }
+        return p == end && j == charEnd;
+    }
+
+    private void decodeUtf8(int position, int length, StringBuilder out) {
+        int p = position;
+        int end = position + length;
+        while (p < end) {
+            int b = data.get(p) & 0xFF;
+            if (b < 0x80) {
+                out.append((char) b);
+                p++;
+            } else if (b < 0xE0) {
+                out.append((char) (((b & 0x1F) << 6) | (data.get(p + 1) & 0x3F)));
+                p += 2;
+            } else if (b < 0xF0) {
+                out.append((char) (((b & 0x0F) << 12) | ((data.get(p + 1) & 0x3F) << 6) | (data.get(p + 2) & 0x3F)));
+                p += 3;
+            } else {
+                out.appendCodePoint(((b & 0x07) << 18) | ((data.get(p + 1) & 0x3F) << 12)
+                        | ((data.get(p + 2) & 0x3F) << 6) | (data.get(p + 3) & 0x3F));
+                p += 4;
+            }
+        }
+    }
+
+    private int append(byte[] key, byte[] value) {
+        int required = 4 + key.length + (value == null ? 0 : value.length);
+        if (data.remaining() < required) {
+            long capacity = Math.max((long) data.capacity() * 2, (long) data.position() + required);
+            if (capacity > Integer.MAX_VALUE - 1) {
+                throw new IllegalStateException("OffHeapDictionary data area is full: " + size);
+            }
+            ByteBuffer grown = ByteBuffer.allocateDirect((int) capacity);
+            data.flip();
+            grown.put(data);
+            data = grown;
+        }
+        int position = data.position();
+        data.putShort((short) key.length).put(key);
+        if (value == null) {
+            data.putShort((short) EXCLUDED);
+        } else {
+            data.putShort((short) value.length).put(value);
+        }
+        return position;
+    }
+
+    private void resizeTable(int slots) {
+        if (slots > MAX_SLOTS) {
+            throw new IllegalStateException("OffHeapDictionary is full: " + size);
+        }
+        ByteBuffer old = table;
+        int oldSlots = mask + 1;
+        table = ByteBuffer.allocateDirect(slots * SLOT_BYTES);
+        mask = slots - 1;
+        for (int j = 0; j < oldSlots; j++) {
+            int ref = old.getInt(j * SLOT_BYTES + 4);
+            if (ref != 0) {
+                int hash = old.getInt(j * SLOT_BYTES);
+                int i = spread(hash) & mask;
+                while (table.getInt(i * SLOT_BYTES + 4) != 0) {
+                    i = (i + 1) & mask;
+                }
+                table.putInt(i * SLOT_BYTES, hash);
+                table.putInt(i * SLOT_BYTES + 4, ref);
+            }
+        }
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,80 @@
+import java.util.Arrays;
+
+/**
+ * 문장 전처리용 단일 패스 토크나이저 (SP_TEST, SP_TEST2, SP_TEST3 공용)
+ * - 공백(정규식 \s와 동일: 스페이스, \t, \n, \x0B, \f, \r) 기준으로 입력을 한 번만 훑는다
+ * - 토큰을 재사용 버퍼에 소문자로 옮겨 사전을 조회하므로 토큰마다 String을 만들지 않는다
+ * - 찾은 벡터는 사전이 재사용 StringBuilder에 바로 공백으로 이어 붙인다
+ * - 불용어 벡터는 사전 로드 시 제외 항목으로 표시되므로 토큰당 사전 탐색은 한 번뿐이다
+ * - 내부 버퍼를 재사용하므로 스레드마다 별도 인스턴스를 사용해야 한다
+ *
+ * 기존 코드(trim().split("\\s+") + toLowerCase() + String.join(" ", ...))와 결과가 같다.
+ * 줄 앞뒤의 제어 문자(<= ' ', 예: \0)는 trim()과 같이 공백이 아니어도 버리며, 줄 가운데의 제어 문자는 토큰에 포함된다.
+ * 단, 소문자 변환은 문자 단위(Character.toLowerCase)로 한다.
+ */
+public class Tokenizer {
+    private char[] token = new char[64];
+    private final StringBuilder out = new StringBuilder(256);
+
+    /**
+     * 문장을 벡터 문자열로 변환
+     * @return 내부 StringBuilder (다음 호출 전까지만 유효)
+     */
+    public StringBuilder process(CharSequence line, VectorDictionary dictionary) {
+        out.setLength(0);
+        // String.trim과 같은 범위 (앞뒤의 <= ' ' 문자 제외)
+        int length = line.length();
+        int i = 0;
+        while (i < length && line.charAt(i) <= ' ') {
+            i++;
+        }
+        while (length > i && line.charAt(length - 1) <= ' ') {
+            length--;
+        }
+        while (i < length) {
+            // 공백 건너뛰기
+            while (i < length && isWhitespace(line.charAt(i))) {
+                i++;
+            }
+            if (i >= length) {
+                break;
+            }
+            // 토큰을 소문자로 버퍼에 복사
+            int len = 0;
+            while (i < length) {
+                char c = line.charAt(i);
+                if (isWhitespace(c)) {
+                    break;
+                }
+                if (len == token.length) {
+                    token = Arrays.copyOf(token, len * 2);
+                }
+                token[len++] = toLowerCase(c);
+                i++;
+            }
+            appendVector(dictionary, len);
+        }
+        return out;
+    }
+
+    private void appendVector(VectorDictionary dictionary, int len) {
+        int mark = out.length();
+        if (mark > 0) {
+            out.append(' ');
+        }
+        if (!dictionary.appendVector(token, 0, len, out)) {
+            out.setLength(mark);
+        }
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || (c >= '\t' && c <= '\r');
+    }
+
+    private static char toLowerCase(char c) {
+        if (c < 0x80) {
+            return (c >= 'A' && c <= 'Z') ? (char) (c + 32) : c;
+        }
+        return Character.toLowerCase(c);
+    }
+}
@@ -0,0 +1,36 @@
+/**
+ * 단어 -> 벡터 사전 인터페이스 (SP_TEST, SP_TEST2, SP_TEST3 공용)
+ * - 조회는 문자 구간(char[] + offset + length)으로 하고, 찾은 벡터는 StringBuilder에 바로 덧붙인다
+ * - 구현: CharDictionary(힙, String 저장), OffHeapDictionary(다이렉트 메모리, UTF-8 바이트 저장)
+ */
+public interface VectorDictionary {
+
+    /**
+     * 키/값 추가 (같은 키가 있으면 값을 덮어씀)
+     * vector가 null이면 제외 항목(불용어 벡터)으로 표시되어 조회 시 없는 단어로 처리된다
+     */
+    void put(String word, String vector);
+
+    /**
+     * 단어의 벡터를 out 끝에 덧붙이고 true 반환, 없으면 out을 건드리지 않고 false 반환
+     */
+    boolean appendVector(char[] word, int off, int len, StringBuilder out);
+
+    int size();
+
+    /**
+     * 사전이 차지하는 메모리 추정치 (바이트)
+     */
+    long footprintBytes();
+
+    /**
+     * 시스템 프로퍼티 dictionary.impl(heap | offheap, 기본 heap)에 따라 구현 선택
+     */
+    static VectorDictionary create(int expectedSize) {
+        String impl = System.getProperty("dictionary.impl", "heap");
+        if ("offheap".equalsIgnoreCase(impl)) {
+            return new OffHeapDictionary(expectedSize);
+        }
+        return new CharDictionary(expectedSize);
+    }
+}
@@ -1,44 +1,17 @@
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.Scanner;
 
 public class SP_TEST {
-    // 단어 사전 저장용 Map
-    private static final Map<String, String> dictionary = new HashMap<>();
+    // 단어 사전 저장용 (-Ddictionary.impl=offheap 이면 다이렉트 메모리 사용)
+    private static VectorDictionary dictionary;
 
     public static void main(String[] args) throws Exception {
         loadDictionary("DICTIONARY.TXT");
-        Scanner scanner = new Scanner(System.in);
-        while (true) {
-            String line = scanner.nextLine();
-            String[] tokens = line.trim().split("\\s+");
-            List<String> vectors = new ArrayList<>();
-            for (String token : tokens) {
-                String key = token.toLowerCase();
-                if (dictionary.containsKey(key)) {
-                    vectors.add(dictionary.get(key));
-                }
-            }
-            System.out.println(String.join(" ", vectors));
-        }
-        
+        // 표준 입력을 줄 단위로 변환해 출력 (EOF에서 종료)
+        LinePipe.run(dictionary);
     }
 
-    // 단어 사전 파일 로드
+    // 단어 사전 파일 로드 (구간별 병렬 파싱)
     private static void loadDictionary(String path) throws IOException {
-        try (BufferedReader br = new BufferedReader(new FileReader(path))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] parts = line.split("#");
-                if (parts.length == 2) {
-                    dictionary.put(parts[0], parts[1]);
-                }
-            }
-        }
+        dictionary = DictionaryLoader.load(path, null, VectorDictionary::create).dictionary();
     }
 }
\ No newline at end of file
@@ -1,47 +1,40 @@
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.List;
-import java.util.Map;
-import java.util.Scanner;
 import java.util.Set;
 
 public class SP_TEST2 {
-    private static final Map<String, String> dictionary = new HashMap<>();
+    private static VectorDictionary dictionary;
     private static final Set<String> stopwords = new HashSet<>();
 
+    private static final String USAGE = "사용법: SP_TEST2 [--batch 입력파일 [출력파일]]";
+
     public static void main(String[] args) throws Exception {
-        loadDictionary("DICTIONARY.TXT");
+        boolean batch = args.length > 0 && args[0].equals("--batch");
+        // 입력 파일이 없는 --batch는 표준 입력 모드로 넘어가지 않고 사전 로드 전에 종료
+        if (batch && (args.length < 2 || args.length > 3)) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
         loadStopwords("STOPWORD.TXT");
-        Scanner scanner = new Scanner(System.in);
-        while (true) {
-            String line = scanner.nextLine();
-            String[] tokens = line.trim().split("\\s+");
-            List<String> vectors = new ArrayList<>();
-            for (String token : tokens) {
-                String key = token.toLowerCase();
-                String vector = dictionary.get(key);
-                if (vector != null && !stopwords.contains(vector)) {
-                    vectors.add(vector);
-                }
-            }
-            System.out.println(String.join(" ", vectors));
+        loadDictionary("DICTIONARY.TXT");
+        if (batch) {
+            // 일괄 모드: SP_TEST2 --batch 입력파일 [출력파일] (출력파일이 없으면 표준 출력)
+            CorpusBatch.Result result = CorpusBatch.run(args[1], args.length >= 3 ? args[2] : null, dictionary);
+            System.err.println("일괄 처리: " + result);
+            return;
         }
+        // 표준 입력을 줄 단위로 변환해 출력 (EOF에서 종료)
+        LinePipe.run(dictionary);
     }
 
+    // 단어 사전 로드 (구간별 병렬 파싱, 벡터가 불용어인 항목은 제외 표시 -> 조회 시 불용어 확인 불필요)
     private static void loadDictionary(String path) throws IOException {
-        try (BufferedReader br = new BufferedReader(new FileReader(path))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] parts = line.split("#");
-                if (parts.length == 2) {
-                    dictionary.put(parts[0], parts[1]);
-                }
-            }
-        }
+        DictionaryLoader.Result<VectorDictionary> loaded = DictionaryLoader.load(path, stopwords,
+                VectorDictionary::create);
+        dictionary = loaded.dictionary();
+        System.err.println("사전 로드: " + dictionary.size() + " entries, 불용어 벡터 제외 " + loaded.excluded() + "건");
     }
 
     private static void loadStopwords(String path) throws IOException {
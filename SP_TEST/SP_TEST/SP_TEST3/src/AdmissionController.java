@@ -0,0 +1,197 @@
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 요청 수락 제어 (적응형 동시 처리 한도 + 모델별 처리 중 요청 한도)
+ * - 처리 중 요청 수가 한도 이상이면 새 요청을 바로 거절한다 (호출자는 503 + Retry-After 응답)
+ * - 한도는 AIMD로 조정한다: 모델 서버 호출 하나가 끝날 때마다 ModelClient가 넘기는 결과를 반영한다
+ *   - 응답 시간은 모델별 동시 요청 대기열에 들어간 시점부터 잰다 (대기열 대기 포함, 캐시 적중과 배치 대기는 제외)
+ *   - 성공: 단기 평균이 기준 응답 시간의 tolerance배를 넘으면 감소, 그렇지 않고 한도의 절반 이상을 쓰고 있으면 1/limit씩 증가
+ *   - 과부하 신호인 실패(타임아웃, 서킷 열림, 전송 실패, 5xx): 바로 감소 (응답 시간 평균에는 반영하지 않음)
+ *   - 감소는 처리 중 요청 수가 한도에 가까울 때(decreaseUtilization 이상)만 backoffRatio를 곱해 한다
+ * - 기준 응답 시간은 장기 지수 이동 평균이다 (최소값과 달리 지연 분포의 흔들림만으로는 단기 평균과 벌어지지 않음)
+ * - 한도에 한참 못 미치는 가벼운 부하에서는 응답 시간이 튀거나 호출이 실패해도 줄이지 않는다 (과부하가 아니므로)
+ * - 감소는 단기 평균 응답 시간(최소 MIN_DECREASE_INTERVAL_NANOS)마다 한 번까지만 한다
+ *   (동시에 실패한 호출 여러 건이 한도를 한꺼번에 깎지 않도록)
+ * - 모델별 한도(maxInFlightPerModel > 0)는 고정값이며 요청 본문에서 모델을 알게 된 시점에 확인한다
+ * - 수락/반납 경로는 CAS이고, 응답 시간 반영만 짧게 락을 잡는다
+ */
+public class AdmissionController {
+	// 응답 시간 단기 지수 이동 평균 가중치 (약 10건)
+	private static final double SHORT_WEIGHT = 0.1;
+	// 응답 시간 장기 지수 이동 평균 가중치 (약 500건, 기준 응답 시간)
+	private static final double BASELINE_WEIGHT = 0.002;
+	// 감소 최소 간격
+	private static final long MIN_DECREASE_INTERVAL_NANOS = 10_000_000L;
+
+	private final boolean enabled;
+	private final int minLimit;
+	private final int maxLimit;
+	private final double tolerance;
+	private final double backoffRatio;
+	private final double decreaseUtilization;
+	private final int maxInFlightPerModel;
+
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final Map<String, AtomicInteger> modelInFlight = new ConcurrentHashMap<>();
+	private volatile double limit;
+	// 아래 필드는 this로 동기화
+	private double shortNanos;
+	private double baselineNanos;
+	private long lastDecreaseNanos;
+
+	private final LongAdder rejected = new LongAdder();
+	private final LongAdder modelRejected = new LongAdder();
+	private final LongAdder overloadSignals = new LongAdder();
+
+	public AdmissionController(boolean enabled, int initialLimit, int minLimit, int maxLimit, double tolerance,
+			double backoffRatio, double decreaseUtilization, int maxInFlightPerModel) {
+		this.enabled = enabled;
+		this.minLimit = Math.max(1, minLimit);
+		this.maxLimit = Math.max(this.minLimit, maxLimit);
+		this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+		this.tolerance = tolerance;
+		this.backoffRatio = backoffRatio;
+		this.decreaseUtilization = decreaseUtilization;
+		this.maxInFlightPerModel = maxInFlightPerModel;
+	}
+
+	/**
+	 * 시스템 프로퍼티 설정값으로 생성
+	 */
+	public static AdmissionController fromSettings() {
+		return new AdmissionController(
+				Settings.getBoolean("admission.enabled", true),
+				Settings.getInt("admission.initialLimit", 200),
+				Settings.getInt("admission.minLimit", 8),
+				Settings.getInt("admission.maxLimit", 1000),
+				Settings.getDouble("admission.tolerance", 2.0),
+				Settings.getDouble("admission.backoffRatio", 0.9),
+				Settings.getDouble("admission.decreaseUtilization", 0.9),
+				Settings.getInt("admission.maxInFlightPerModel", 0));
+	}
+
+	/**
+	 * 새 요청 수락 (수락하면 완료 시 반드시 release 호출)
+	 */
+	public boolean tryAcquire() {
+		while (true) {
+			int current = inFlight.get();
+			if (enabled && current >= (int) limit) {
+				rejected.increment();
+				return false;
+			}
+			if (inFlight.compareAndSet(current, current + 1)) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * 요청 완료
+	 */
+	public void release() {
+		inFlight.decrementAndGet();
+	}
+
+	/**
+	 * 모델 서버 호출 하나의 결과 (ModelClient.CallListener)
+	 * @param nanos 대기열 진입부터 완료까지
+	 * @param overloaded 과부하 신호인 실패 여부
+	 */
+	public void onModelCall(long nanos, boolean overloaded) {
+		if (!enabled) {
+			return;
+		}
+		if (overloaded) {
+			overloadSignals.increment();
+			onOverload(inFlight.get());
+		} else if (nanos >= 0) {
+			update(nanos, inFlight.get());
+		}
+	}
+
+	/**
+	 * 모델별 처리 중 요청 한도 확인 (수락하면 완료 시 releaseModel 호출)
+	 */
+	public boolean tryAcquireModel(String model) {
+		if (maxInFlightPerModel <= 0) {
+			return true;
+		}
+		AtomicInteger count = modelInFlight.computeIfAbsent(model, k -> new AtomicInteger());
+		while (true) {
+			int current = count.get();
+			if (current >= maxInFlightPerModel) {
+				modelRejected.increment();
+				return false;
+			}
+			if (count.compareAndSet(current, current + 1)) {
+				return true;
+			}
+		}
+	}
+
+	public void releaseModel(String model) {
+		if (maxInFlightPerModel > 0) {
+			modelInFlight.get(model).decrementAndGet();
+		}
+	}
+
+	private synchronized void update(long nanos, int currentInFlight) {
+		if (baselineNanos == 0) {
+			shortNanos = nanos;
+			baselineNanos = Math.max(1, nanos);
+			return;
+		}
+		shortNanos += (nanos - shortNanos) * SHORT_WEIGHT;
+		baselineNanos = Math.max(1, baselineNanos + (nanos - baselineNanos) * BASELINE_WEIGHT);
+		if (shortNanos > baselineNanos * tolerance) {
+			decrease(currentInFlight);
+		} else if (currentInFlight >= limit / 2) {
+			limit = Math.min(maxLimit, limit + 1 / limit);
+		}
+	}
+
+	private synchronized void onOverload(int currentInFlight) {
+		decrease(currentInFlight);
+	}
+
+	private void decrease(int currentInFlight) {
+		long now = System.nanoTime();
+		if (currentInFlight >= limit * decreaseUtilization
+				&& now - lastDecreaseNanos >= Math.max(shortNanos, MIN_DECREASE_INTERVAL_NANOS)) {
+			limit = Math.max(minLimit, limit * backoffRatio);
+			lastDecreaseNanos = now;
+		}
+	}
+
+	public int getLimit() {
+		return (int) limit;
+	}
+
+	public int getInFlight() {
+		return inFlight.get();
+	}
+
+	public long getRejectedCount() {
+		return rejected.sum();
+	}
+
+	public long getModelRejectedCount() {
+		return modelRejected.sum();
+	}
+
+	public long getOverloadSignalCount() {
+		return overloadSignals.sum();
+	}
+
+	public synchronized double getShortLatencyNanos() {
+		return shortNanos;
+	}
+
+	public synchronized double getBaselineLatencyNanos() {
+		return baselineNanos;
+	}
+}
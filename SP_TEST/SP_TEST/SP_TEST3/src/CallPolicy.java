@@ -0,0 +1,213 @@
+import java.io.IOException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 모델 서버 호출의 재시도/헤징 정책
+ * - 재시도: 멱등한 실패(연결 실패, 연결 끊김, HTTP 5xx, 서킷 열림)만 maxRetries번까지,
+ *   full jitter 지수 백오프(0 ~ min(maxBackoff, backoff * 2^n)) 후 다시 레플리카를 골라 보낸다
+ *   (요청 타임아웃은 이미 오래 기다린 것이므로 재시도하지 않고 헤징으로 대응)
+ * - 헤징: 첫 요청이 모델의 최근 응답 시간 분위수(기본 p95)까지 응답하지 않으면 다른 레플리카로 같은 요청을 보내고
+ *   먼저 성공한 응답을 쓴다 (레플리카가 2개 이상일 때만)
+ * - 최근 응답 시간은 hedgeWindowMs마다 교체하는 히스토그램 두 개(직전 구간 + 현재 구간)로 계산한다
+ *   (누적 분포는 오래된 표본에 묻혀 모델이 느려지거나 빨라져도 분위수가 따라가지 못함)
+ * - 헤징으로 늘어나는 요청은 토큰 버킷으로 1차 요청의 maxPercent% 이내로 제한한다
+ */
+public class CallPolicy {
+	// 토큰 1개 = 헤지 요청 1건 (정수 연산을 위해 100배로 저장)
+	private static final long TOKEN = 100;
+	// 헤지 요청을 연속으로 보낼 수 있는 최대 개수
+	private static final long MAX_BURST = 10;
+	// 헤징 지연(분위수) 재계산 주기
+	private static final long REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+	private final int maxRetries;
+	private final long backoffMs;
+	private final long maxBackoffMs;
+	private final boolean hedgeEnabled;
+	private final double hedgeQuantile;
+	private final long hedgeMinDelayNanos;
+	private final int hedgeMaxPercent;
+	private final long hedgeMinSamples;
+	private final long hedgeWindowNanos;
+
+	public CallPolicy(int maxRetries, long backoffMs, long maxBackoffMs, boolean hedgeEnabled, double hedgeQuantile,
+			long hedgeMinDelayMs, int hedgeMaxPercent, long hedgeMinSamples, long hedgeWindowMs) {
+		this.maxRetries = Math.max(0, maxRetries);
+		this.backoffMs = Math.max(1, backoffMs);
+		this.maxBackoffMs = Math.max(this.backoffMs, maxBackoffMs);
+		this.hedgeEnabled = hedgeEnabled && hedgeMaxPercent > 0;
+		this.hedgeQuantile = hedgeQuantile;
+		this.hedgeMinDelayNanos = TimeUnit.MILLISECONDS.toNanos(hedgeMinDelayMs);
+		this.hedgeMaxPercent = hedgeMaxPercent;
+		this.hedgeMinSamples = hedgeMinSamples;
+		this.hedgeWindowNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, hedgeWindowMs));
+	}
+
+	/**
+	 * 시스템 프로퍼티 설정값으로 정책 생성
+	 */
+	public static CallPolicy fromSettings() {
+		return new CallPolicy(
+				Settings.getInt("model.retry.maxRetries", 1),
+				Settings.getLong("model.retry.backoffMs", 20),
+				Settings.getLong("model.retry.maxBackoffMs", 200),
+				Settings.getBoolean("model.hedge.enabled", false),
+				Settings.getDouble("model.hedge.quantile", 0.95),
+				Settings.getLong("model.hedge.minDelayMs", 2),
+				Settings.getInt("model.hedge.maxPercent", 10),
+				Settings.getLong("model.hedge.minSamples", 100),
+				Settings.getLong("model.hedge.windowMs", 10000));
+	}
+
+	public int getMaxRetries() {
+		return maxRetries;
+	}
+
+	public boolean isHedgeEnabled() {
+		return hedgeEnabled;
+	}
+
+	/**
+	 * 재시도해도 되는 실패인지 (같은 요청을 다시 보내도 결과가 같은 호출에서, 서버가 처리하지 못한 경우)
+	 * 서킷이 열려 보내지 않은 실패는 제외한다: 레플리카 선택은 이미 닫힌 서킷을 우선하므로 이 실패는
+	 * 보낼 수 있는 레플리카가 없다는 뜻이고, 재시도는 같은 열린 서킷에 막혀 지연만 늘린다
+	 */
+	public boolean isRetryable(Throwable error) {
+		Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+		if (cause instanceof CircuitBreaker.OpenException) {
+			return false;
+		}
+		if (cause instanceof ModelClient.StatusException) {
+			return ((ModelClient.StatusException) cause).getStatus() >= 500;
+		}
+		return cause instanceof IOException;
+	}
+
+	/**
+	 * attempt번째 재시도 전 대기 시간 (full jitter)
+	 */
+	public long backoffMs(int attempt) {
+		long ceiling = Math.min(maxBackoffMs, backoffMs << Math.min(attempt, 20));
+		return ThreadLocalRandom.current().nextLong(ceiling + 1);
+	}
+
+	public Stats newStats() {
+		return new Stats();
+	}
+
+	/**
+	 * 모델 하나의 호출 통계 (응답 시간 분포, 헤지 예산, 헤지/재시도 횟수)
+	 */
+	public class Stats {
+		// 현재 구간 / 직전 구간 응답 시간 (교체는 refresh에서만)
+		private volatile LatencyHistogram latency = new LatencyHistogram();
+		private volatile LatencyHistogram previousLatency = new LatencyHistogram();
+		private long rotatedAt = System.nanoTime();
+		private final AtomicLong tokens = new AtomicLong(MAX_BURST * TOKEN);
+		private volatile long hedgeDelayNanos = -1;
+		private volatile long refreshedAt = System.nanoTime() - REFRESH_NANOS;
+
+		private final LongAdder hedges = new LongAdder();
+		private final LongAdder hedgesWon = new LongAdder();
+		private final LongAdder hedgesSkipped = new LongAdder();
+		private final LongAdder retries = new LongAdder();
+
+		/**
+		 * 1차 요청 1건마다 호출: 헤지 예산을 maxPercent/100 토큰만큼 채운다
+		 */
+		public void onPrimary() {
+			if (!hedgeEnabled) {
+				return;
+			}
+			long current = tokens.get();
+			if (current < MAX_BURST * TOKEN) {
+				tokens.accumulateAndGet(hedgeMaxPercent, (t, add) -> Math.min(MAX_BURST * TOKEN, t + add));
+			}
+		}
+
+		public void recordLatency(long nanos) {
+			latency.record(nanos);
+		}
+
+		/**
+		 * 헤지 요청을 보내기까지 기다릴 시간 (헤징 사용 안 함 또는 표본 부족 시 -1)
+		 */
+		public long hedgeDelayNanos() {
+			if (!hedgeEnabled) {
+				return -1;
+			}
+			long now = System.nanoTime();
+			if (now - refreshedAt >= REFRESH_NANOS) {
+				refresh(now);
+			}
+			return hedgeDelayNanos;
+		}
+
+		// 구간이 지났으면 히스토그램을 교체하고 (두 구간 이상 비었으면 직전 구간도 비움) 헤징 지연을 다시 계산
+		private synchronized void refresh(long now) {
+			if (now - refreshedAt < REFRESH_NANOS) {
+				return;
+			}
+			refreshedAt = now;
+			long elapsed = now - rotatedAt;
+			if (elapsed >= hedgeWindowNanos) {
+				previousLatency = elapsed >= 2 * hedgeWindowNanos ? new LatencyHistogram() : latency;
+				latency = new LatencyHistogram();
+				rotatedAt = now;
+			}
+			LatencyHistogram current = latency;
+			LatencyHistogram previous = previousLatency;
+			hedgeDelayNanos = current.getCount() + previous.getCount() < hedgeMinSamples ? -1
+					: Math.max(hedgeMinDelayNanos, LatencyHistogram.quantileNanos(hedgeQuantile, previous, current));
+		}
+
+		/**
+		 * 헤지 예산에서 1건 차감 (예산이 없으면 false)
+		 */
+		public boolean tryHedge() {
+			while (true) {
+				long current = tokens.get();
+				if (current < TOKEN) {
+					hedgesSkipped.increment();
+					return false;
+				}
+				if (tokens.compareAndSet(current, current - TOKEN)) {
+					hedges.increment();
+					return true;
+				}
+			}
+		}
+
+		public void onHedgeWon() {
+			hedgesWon.increment();
+		}
+
+		public void onRetry() {
+			retries.increment();
+		}
+
+		public long getHedgeCount() {
+			return hedges.sum();
+		}
+
+		public long getHedgeWonCount() {
+			return hedgesWon.sum();
+		}
+
+		public long getHedgeSkippedCount() {
+			return hedgesSkipped.sum();
+		}
+
+		public long getRetryCount() {
+			return retries.sum();
+		}
+
+		public long getHedgeDelayNanos() {
+			return hedgeDelayNanos;
+		}
+	}
+}
@@ -0,0 +1,224 @@
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 모델 서버 엔드포인트별 서킷 브레이커 (비동기 호출용, 스레드 안전)
+ * - CLOSED: 연속 실패가 failureThreshold에 도달하면 OPEN
+ * - OPEN: openTimeoutMs 동안 호출을 보내지 않고 즉시 OpenException으로 실패시킨다
+ * - HALF_OPEN: 대기 시간이 지나면 halfOpenMaxCalls개의 시험 호출만 허용하고,
+ *   모두 성공하면 CLOSED, 하나라도 실패하면 다시 OPEN
+ * - CLOSED 상태의 호출 경로는 volatile 읽기와 원자적 연산뿐이며, 상태 전환만 락을 잡는다
+ * - failureThreshold가 0 이하이면 열리지 않는다 (사용 안 함)
+ * - 상태 전환은 출력하지 않고 (이전 상태, 다음 상태)별로 센다 (/metrics)
+ */
+public class CircuitBreaker {
+	public enum State {
+		CLOSED, OPEN, HALF_OPEN
+	}
+
+	/**
+	 * 서킷이 열려 있어 호출하지 않고 실패한 경우
+	 */
+	public static class OpenException extends IOException {
+		private static final long serialVersionUID = 1L;
+
+		public OpenException(String name) {
+			super("circuit open: " + name);
+		}
+	}
+
+	private final String name;
+	private final int failureThreshold;
+	private final long openTimeoutNanos;
+	private final int halfOpenMaxCalls;
+
+	private volatile State state = State.CLOSED;
+	private final AtomicInteger consecutiveFailures = new AtomicInteger();
+	// 아래 필드는 this로 동기화
+	private long openedAtNanos;
+	private int halfOpenCalls;
+	private int halfOpenSuccesses;
+
+	private final LongAdder rejected = new LongAdder();
+	private final LongAdder opened = new LongAdder();
+	// [이전 상태][다음 상태] 전환 횟수
+	private final LongAdder[][] transitions = new LongAdder[State.values().length][State.values().length];
+
+	public CircuitBreaker(String name, int failureThreshold, long openTimeoutMs, int halfOpenMaxCalls) {
+		this.name = name;
+		this.failureThreshold = failureThreshold;
+		this.openTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(openTimeoutMs);
+		this.halfOpenMaxCalls = Math.max(1, halfOpenMaxCalls);
+		for (LongAdder[] row : transitions) {
+			for (int i = 0; i < row.length; i++) {
+				row[i] = new LongAdder();
+			}
+		}
+	}
+
+	/**
+	 * 호출 실행 (허용되지 않으면 task를 실행하지 않고 실패한 future 반환)
+	 * task가 돌려준 future가 예외로 완료되면 실패로 센다
+	 * 단 InFlightLimiter 대기 중 기한이 지나 보내지 않은 호출은 성공도 실패도 아니며, 시험 호출 자리만 돌려준다
+	 */
+	public <T> CompletableFuture<T> call(Supplier<CompletableFuture<T>> task) {
+		State admitted = acquire();
+		if (admitted == null) {
+			rejected.increment();
+			return CompletableFuture.failedFuture(new OpenException(name));
+		}
+		CompletableFuture<T> future;
+		try {
+			future = task.get();
+		} catch (RuntimeException e) {
+			onResult(admitted, false);
+			throw e;
+		}
+		return future.whenComplete((value, error) -> {
+			if (isNotSent(error)) {
+				onNotSent(admitted);
+			} else {
+				onResult(admitted, error == null);
+			}
+		});
+	}
+
+	private static boolean isNotSent(Throwable error) {
+		Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+		return cause instanceof InFlightLimiter.ExpiredException;
+	}
+
+	/**
+	 * 지금 호출을 보낼 수 있는지 (상태는 바꾸지 않음, 레플리카 선택용)
+	 */
+	public boolean isCallPermitted() {
+		if (state == State.CLOSED) {
+			return true;
+		}
+		synchronized (this) {
+			if (state == State.OPEN) {
+				return System.nanoTime() - openedAtNanos >= openTimeoutNanos;
+			}
+			return state == State.CLOSED || halfOpenCalls < halfOpenMaxCalls;
+		}
+	}
+
+	// 허용 시 허용된 시점의 상태(CLOSED/HALF_OPEN), 거부 시 null
+	private State acquire() {
+		if (state == State.CLOSED) {
+			return State.CLOSED;
+		}
+		synchronized (this) {
+			if (state == State.OPEN) {
+				if (System.nanoTime() - openedAtNanos < openTimeoutNanos) {
+					return null;
+				}
+				halfOpenCalls = 0;
+				halfOpenSuccesses = 0;
+				transition(State.HALF_OPEN);
+			}
+			if (state == State.HALF_OPEN) {
+				if (halfOpenCalls >= halfOpenMaxCalls) {
+					return null;
+				}
+				halfOpenCalls++;
+				return State.HALF_OPEN;
+			}
+			return State.CLOSED;
+		}
+	}
+
+	private void onResult(State admitted, boolean success) {
+		if (admitted == State.CLOSED) {
+			if (success) {
+				if (consecutiveFailures.get() != 0) {
+					consecutiveFailures.set(0);
+				}
+			} else if (consecutiveFailures.incrementAndGet() >= failureThreshold && failureThreshold > 0) {
+				synchronized (this) {
+					if (state == State.CLOSED) {
+						open();
+					}
+				}
+			}
+			return;
+		}
+		synchronized (this) {
+			// 다른 시험 호출이 먼저 실패해 이미 다시 열린 경우
+			if (state != State.HALF_OPEN) {
+				return;
+			}
+			if (!success) {
+				open();
+			} else if (++halfOpenSuccesses >= halfOpenMaxCalls) {
+				consecutiveFailures.set(0);
+				transition(State.CLOSED);
+			}
+		}
+	}
+
+	private void onNotSent(State admitted) {
+		if (admitted != State.HALF_OPEN) {
+			return;
+		}
+		synchronized (this) {
+			if (state == State.HALF_OPEN && halfOpenCalls > 0) {
+				halfOpenCalls--;
+			}
+		}
+	}
+
+	private void open() {
+		openedAtNanos = System.nanoTime();
+		opened.increment();
+		transition(State.OPEN);
+	}
+
+	private void transition(State next) {
+		transitions[state.ordinal()][next.ordinal()].increment();
+		state = next;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public State getState() {
+		return state;
+	}
+
+	public int getConsecutiveFailures() {
+		return consecutiveFailures.get();
+	}
+
+	/**
+	 * 열린 상태여서 거부한 호출 수
+	 */
+	public long getRejectedCount() {
+		return rejected.sum();
+	}
+
+	/**
+	 * OPEN으로 전환된 횟수
+	 */
+	public long getOpenedCount() {
+		return opened.sum();
+	}
+
+	/**
+	 * from -> to 상태 전환 횟수
+	 */
+	public long getTransitionCount(State from, State to) {
+		return transitions[from.ordinal()][to.ordinal()].sum();
+	}
+
+	@Override
+	public String toString() {
+		return "CircuitBreaker[" + name + ", " + state + ", failures=" + consecutiveFailures.get() + "]";
+	}
+}
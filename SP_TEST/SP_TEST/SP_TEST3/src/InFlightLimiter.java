@@ -0,0 +1,125 @@
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 비동기 작업 동시 실행 수 제한기
+ * - 최대 동시 실행 수를 넘는 작업은 대기열에 넣고, 앞선 작업이 끝나면 순서대로 시작한다
+ * - 대기하는 동안 기한(deadline)이 지난 작업은 시작하지 않고 TimeoutException으로 실패시킨다
+ * - 호출 스레드를 블로킹하지 않는다
+ */
+public class InFlightLimiter {
+	private final int maxInFlight;
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final Queue<Runnable> waiting = new ConcurrentLinkedQueue<>();
+	// drain 진입 횟수 (0이 아니면 다른 스레드/상위 호출이 이미 대기열을 비우는 중)
+	private final AtomicInteger draining = new AtomicInteger();
+	private final LongAdder expired = new LongAdder();
+
+	/**
+	 * 기한이 지나 작업을 시작하지 않은 경우 (모델 서버에 보내지 않았음)
+	 */
+	public static class ExpiredException extends TimeoutException {
+		private static final long serialVersionUID = 1L;
+
+		public ExpiredException() {
+			super("queued past deadline");
+		}
+	}
+
+	public InFlightLimiter(int maxInFlight) {
+		if (maxInFlight <= 0) {
+			throw new IllegalArgumentException("maxInFlight must be positive: " + maxInFlight);
+		}
+		this.maxInFlight = maxInFlight;
+	}
+
+	/**
+	 * 작업 제출 (허용량이 있으면 바로 시작, 없으면 대기)
+	 * @param deadlineNanos System.nanoTime() 기준 기한, 차례가 왔을 때 지나 있으면 작업을 시작하지 않고 ExpiredException으로 실패
+	 */
+	public <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> task, long deadlineNanos) {
+		CompletableFuture<T> result = new CompletableFuture<>();
+		waiting.offer(() -> {
+			// 기다리는 동안 호출자가 포기했을 작업은 모델 서버에 보내지 않음
+			if (System.nanoTime() - deadlineNanos >= 0) {
+				expired.increment();
+				release();
+				result.completeExceptionally(new ExpiredException());
+				return;
+			}
+			CompletableFuture<T> future;
+			try {
+				future = task.get();
+			} catch (RuntimeException e) {
+				release();
+				result.completeExceptionally(e);
+				return;
+			}
+			future.whenComplete((value, error) -> {
+				release();
+				if (error != null) {
+					result.completeExceptionally(error);
+				} else {
+					result.complete(value);
+				}
+			});
+		});
+		drain();
+		return result;
+	}
+
+	public int getInFlight() {
+		return inFlight.get();
+	}
+
+	public int getWaiting() {
+		return waiting.size();
+	}
+
+	/**
+	 * 기한이 지나 시작하지 않고 버린 작업 수
+	 */
+	public long getExpiredCount() {
+		return expired.sum();
+	}
+
+	private void release() {
+		inFlight.decrementAndGet();
+		drain();
+	}
+
+	// 작업이 동기적으로 끝나 release -> drain으로 다시 들어오면 진입 횟수만 올리고 바깥 루프가 이어서 처리한다 (재귀 없음)
+	private void drain() {
+		if (draining.getAndIncrement() != 0) {
+			return;
+		}
+		int missed = 1;
+		do {
+			startAvailable();
+			missed = draining.addAndGet(-missed);
+		} while (missed != 0);
+	}
+
+	private void startAvailable() {
+		while (true) {
+			int current = inFlight.get();
+			if (current >= maxInFlight) {
+				return;
+			}
+			if (!inFlight.compareAndSet(current, current + 1)) {
+				continue;
+			}
+			Runnable next = waiting.poll();
+			if (next == null) {
+				inFlight.decrementAndGet();
+				return;
+			}
+			next.run();
+		}
+	}
+}
@@ -0,0 +1,117 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 나노초 지연 시간 히스토그램 (HDR 방식 로그-선형 버킷)
+ * - 2의 거듭제곱 구간마다 SUB_BUCKETS개로 나눠 기록하므로 상대 오차가 1/SUB_BUCKETS(12.5%) 이내이다
+ * - 1ns ~ 2^63ns 전 범위를 488개 카운터로 표현하고, 기록은 배열 인덱스 계산 + 원자적 증가 한 번이다
+ * - 락이 없으므로 여러 요청 스레드가 동시에 기록해도 된다 (읽기는 근사 스냅숏)
+ */
+public class LatencyHistogram {
+	private static final int SUB_BITS = 3;
+	private static final int SUB_BUCKETS = 1 << SUB_BITS;
+	private static final int BUCKETS = SUB_BUCKETS + (63 - SUB_BITS) * SUB_BUCKETS;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	private final AtomicLong count = new AtomicLong();
+	private final AtomicLong sumNanos = new AtomicLong();
+	private final AtomicLong maxNanos = new AtomicLong();
+
+	public void record(long nanos) {
+		long value = Math.max(0, nanos);
+		counts.incrementAndGet(indexOf(value));
+		count.incrementAndGet();
+		sumNanos.addAndGet(value);
+		if (value > maxNanos.get()) {
+			maxNanos.accumulateAndGet(value, Math::max);
+		}
+	}
+
+	public long getCount() {
+		return count.get();
+	}
+
+	public long getSumNanos() {
+		return sumNanos.get();
+	}
+
+	public long getMaxNanos() {
+		return maxNanos.get();
+	}
+
+	/**
+	 * 값이 limitNanos 이하인 기록 수 (버킷 상한 기준 근사)
+	 */
+	public long countAtOrBelow(long limitNanos) {
+		long total = 0;
+		for (int i = 0; i < BUCKETS && upperBound(i) - 1 <= limitNanos; i++) {
+			total += counts.get(i);
+		}
+		return total;
+	}
+
+	/**
+	 * 분위수 값 (해당 버킷의 상한, 나노초)
+	 */
+	public long quantileNanos(double quantile) {
+		long total = count.get();
+		if (total == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(quantile * total));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts.get(i);
+			if (seen >= rank) {
+				return Math.min(upperBound(i) - 1, maxNanos.get());
+			}
+		}
+		return maxNanos.get();
+	}
+
+	/**
+	 * 여러 히스토그램을 합친 분포의 분위수 값 (해당 버킷의 상한, 나노초)
+	 */
+	public static long quantileNanos(double quantile, LatencyHistogram... histograms) {
+		long total = 0;
+		long max = 0;
+		for (LatencyHistogram h : histograms) {
+			total += h.count.get();
+			max = Math.max(max, h.maxNanos.get());
+		}
+		if (total == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(quantile * total));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			for (LatencyHistogram h : histograms) {
+				seen += h.counts.get(i);
+			}
+			if (seen >= rank) {
+				return Math.min(upperBound(i) - 1, max);
+			}
+		}
+		return max;
+	}
+
+	private static int indexOf(long value) {
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+		return SUB_BUCKETS + (exponent - SUB_BITS) * SUB_BUCKETS + sub;
+	}
+
+	// 버킷 i에 들어가는 값의 상한 (exclusive)
+	private static long upperBound(int index) {
+		if (index < SUB_BUCKETS) {
+			return index + 1;
+		}
+		int exponent = (index - SUB_BUCKETS) / SUB_BUCKETS + SUB_BITS;
+		int sub = (index - SUB_BUCKETS) % SUB_BUCKETS;
+		long upper = (long) (SUB_BUCKETS + sub + 1) << (exponent - SUB_BITS);
+		return upper <= 0 ? Long.MAX_VALUE : upper;
+	}
+}
@@ -0,0 +1,167 @@
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SP_TEST3 요청 처리 지표
+ * - 모델별/단계별 지연 시간 히스토그램 (parse, preprocess, model, write, total)
+ * - 처리 중인 요청 수, 모델별/유형별 오류 카운터
+ * - Prometheus 텍스트 형식(0.0.4)으로 출력 (/metrics)
+ * - 기록 경로는 맵 조회 + 원자적 증가뿐이며 락을 잡지 않는다
+ */
+public class Metrics {
+	// 모델을 알 수 없는 요청(잘못된 JSON, 없는 모델명)의 model 라벨 (라벨 값 종류가 늘어나지 않도록 고정)
+	public static final String NO_MODEL = "_none";
+
+	/**
+	 * 요청 처리 단계
+	 */
+	public enum Stage {
+		// 요청 본문 JSON 읽기 (전처리/전송 시간 제외)
+		PARSE("parse"),
+		// 토큰화 + 사전 조회
+		PREPROCESS("preprocess"),
+		// 첫 전송부터 모든 결과 수신까지 (벽시계 시간)
+		MODEL("model"),
+		// 응답 JSON 기록
+		WRITE("write"),
+		// 요청 시작부터 완료까지
+		TOTAL("total");
+
+		private final String label;
+
+		Stage(String label) {
+			this.label = label;
+		}
+	}
+
+	// Prometheus 히스토그램 버킷 경계 (초)
+	private static final double[] BUCKET_SECONDS = { 0.00001, 0.000025, 0.00005, 0.0001, 0.00025, 0.0005, 0.001,
+			0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10 };
+	private static final double[] QUANTILES = { 0.5, 0.9, 0.99, 0.999 };
+
+	private final Map<String, LatencyHistogram[]> stages = new ConcurrentHashMap<>();
+	private final Map<String, Map<String, LongAdder>> errors = new ConcurrentHashMap<>();
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final LongAdder requests = new LongAdder();
+
+	public void requestStarted() {
+		requests.increment();
+		inFlight.incrementAndGet();
+	}
+
+	public void requestFinished() {
+		inFlight.decrementAndGet();
+	}
+
+	public void record(String model, Stage stage, long nanos) {
+		stages.computeIfAbsent(model, k -> newHistograms())[stage.ordinal()].record(nanos);
+	}
+
+	public void error(String model, String type) {
+		errors.computeIfAbsent(model, k -> new ConcurrentHashMap<>()).computeIfAbsent(type, k -> new LongAdder())
+				.increment();
+	}
+
+	public int getInFlight() {
+		return inFlight.get();
+	}
+
+	private static LatencyHistogram[] newHistograms() {
+		LatencyHistogram[] histograms = new LatencyHistogram[Stage.values().length];
+		for (int i = 0; i < histograms.length; i++) {
+			histograms[i] = new LatencyHistogram();
+		}
+		return histograms;
+	}
+
+	/**
+	 * 이 객체가 가진 지표를 Prometheus 형식으로 출력
+	 */
+	public void write(PrometheusWriter out) {
+		out.family("sp_test3_requests_total", "counter", "Total POST requests received");
+		out.sample("sp_test3_requests_total", "", requests.sum());
+		out.family("sp_test3_requests_in_flight", "gauge", "Requests currently being processed");
+		out.sample("sp_test3_requests_in_flight", "", inFlight.get());
+
+		Map<String, LatencyHistogram[]> sorted = new TreeMap<>(stages);
+		out.family("sp_test3_stage_latency_seconds", "histogram", "Per-request latency of each pipeline stage");
+		for (Map.Entry<String, LatencyHistogram[]> entry : sorted.entrySet()) {
+			for (Stage stage : Stage.values()) {
+				out.histogram("sp_test3_stage_latency_seconds",
+						"model=\"" + PrometheusWriter.escape(entry.getKey()) + "\",stage=\"" + stage.label + "\"",
+						entry.getValue()[stage.ordinal()]);
+			}
+		}
+		// 히스토그램 버킷보다 정밀한 분위수 (HDR 버킷 기준, 상대 오차 12.5% 이내)
+		out.family("sp_test3_stage_latency_quantile_seconds", "gauge", "Latency quantiles of each pipeline stage");
+		for (Map.Entry<String, LatencyHistogram[]> entry : sorted.entrySet()) {
+			for (Stage stage : Stage.values()) {
+				LatencyHistogram h = entry.getValue()[stage.ordinal()];
+				String labels = "model=\"" + PrometheusWriter.escape(entry.getKey()) + "\",stage=\"" + stage.label + "\"";
+				for (double q : QUANTILES) {
+					out.sample("sp_test3_stage_latency_quantile_seconds", labels + ",quantile=\"" + q + "\"",
+							h.quantileNanos(q) / 1e9);
+				}
+				out.sample("sp_test3_stage_latency_quantile_seconds", labels + ",quantile=\"1\"", h.getMaxNanos() / 1e9);
+			}
+		}
+
+		out.family("sp_test3_errors_total", "counter", "Errors by model and type");
+		for (Map.Entry<String, Map<String, LongAdder>> entry : new TreeMap<>(errors).entrySet()) {
+			for (Map.Entry<String, LongAdder> type : new TreeMap<>(entry.getValue()).entrySet()) {
+				out.sample("sp_test3_errors_total", "model=\"" + PrometheusWriter.escape(entry.getKey())
+						+ "\",type=\"" + type.getKey() + "\"", type.getValue().sum());
+			}
+		}
+	}
+
+	/**
+	 * Prometheus 텍스트 형식 출력 도우미 (family마다 HELP/TYPE 한 번, 이어서 샘플)
+	 */
+	public static class PrometheusWriter {
+		private final StringBuilder out = new StringBuilder(4096);
+
+		public void family(String name, String type, String help) {
+			out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+			out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+		}
+
+		public void sample(String name, String labels, double value) {
+			out.append(name);
+			if (!labels.isEmpty()) {
+				out.append('{').append(labels).append('}');
+			}
+			out.append(' ');
+			if (value == (long) value) {
+				out.append((long) value);
+			} else {
+				out.append(value);
+			}
+			out.append('\n');
+		}
+
+		/**
+		 * 히스토그램 샘플 (_bucket, _sum, _count, 초 단위 버킷)
+		 */
+		public void histogram(String name, String labels, LatencyHistogram h) {
+			for (double le : BUCKET_SECONDS) {
+				sample(name + "_bucket", labels + ",le=\"" + le + "\"", h.countAtOrBelow((long) (le * 1e9)));
+			}
+			sample(name + "_bucket", labels + ",le=\"+Inf\"", h.getCount());
+			sample(name + "_sum", labels, h.getSumNanos() / 1e9);
+			sample(name + "_count", labels, h.getCount());
+		}
+
+		static String escape(String value) {
+			return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+		}
+
+		@Override
+		public String toString() {
+			return out.toString();
+		}
+	}
+}
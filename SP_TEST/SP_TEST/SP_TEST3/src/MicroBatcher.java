@@ -0,0 +1,219 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.jetty.util.component.AbstractLifeCycle;
+
+/**
+ * 요청 간 마이크로 배칭 스케줄러 (dynamic batching)
+ * - 동시에 들어온 여러 HTTP 요청의 질의를 모델별로 모아, 배치 크기를 채우거나 대기 시간(deadline)이 지나면 한 번에 전송한다
+ * - 배치 결과를 받아 각 호출자의 future를 완료한다
+ * - 크기 조건으로 먼저 전송한 배치의 deadline 예약은 취소한다
+ * - 스케줄러 스레드는 deadline 시점에 배치를 떼어 내기만 하고, 배치 구성/전송은 전송 스레드 풀에서 한다
+ *   (한 모델의 전송이 늦어져도 다른 모델의 deadline이 밀리지 않음, 크기 조건 배치는 제출한 요청 스레드에서 전송)
+ * - 배치 채움률(fill ratio)과 모델별 큐 대기 시간 히스토그램을 집계한다 (/metrics)
+ * - 중지된 뒤 제출한 질의는 실패한 future로 돌려준다
+ */
+public class MicroBatcher extends AbstractLifeCycle {
+	private final ModelClient modelClient;
+	private final long maxDelayMicros;
+	private final Map<String, Lane> lanes = new ConcurrentHashMap<>();
+	private ScheduledThreadPoolExecutor scheduler;
+	private ExecutorService sender;
+
+	// 통계
+	private final LongAdder batchCount = new LongAdder();
+	private final LongAdder itemCount = new LongAdder();
+	private final LongAdder capacitySum = new LongAdder();
+	private final Map<String, LatencyHistogram> queueDelays = new ConcurrentHashMap<>();
+
+	public MicroBatcher(ModelClient modelClient, long maxDelayMicros) {
+		this.modelClient = modelClient;
+		this.maxDelayMicros = maxDelayMicros;
+	}
+
+	/**
+	 * 모델별 대기 배치
+	 */
+	private static class Lane {
+		private List<Item> items = new ArrayList<>();
+		private long generation;
+		// 현재 배치의 deadline 예약 (배치를 보내면 취소)
+		private ScheduledFuture<?> deadline;
+	}
+
+	private static class Item {
+		private final String processed;
+		private final long enqueuedNanos = System.nanoTime();
+		private final CompletableFuture<String> future = new CompletableFuture<>();
+
+		Item(String processed) {
+			this.processed = processed;
+		}
+	}
+
+	/**
+	 * 질의 하나를 모델의 대기 배치에 추가하고 class code future를 반환
+	 */
+	public CompletableFuture<String> submit(SP_TEST3.ModelInfo model, String processed) {
+		if (!isStarted()) {
+			return CompletableFuture.failedFuture(new RejectedExecutionException("micro-batcher is not running"));
+		}
+		Item item = new Item(processed);
+		Lane lane = lanes.computeIfAbsent(model.modelname, k -> new Lane());
+		List<Item> ready = null;
+		synchronized (lane) {
+			if (lane.items.isEmpty()) {
+				// 새 배치의 첫 질의: deadline 예약 (중지와 경합해 예약이 거부되면 실패로 반환)
+				long generation = lane.generation;
+				try {
+					lane.deadline = scheduler.schedule(() -> flush(model, lane, generation), maxDelayMicros,
+							TimeUnit.MICROSECONDS);
+				} catch (RejectedExecutionException e) {
+					return CompletableFuture.failedFuture(e);
+				}
+			}
+			lane.items.add(item);
+			if (lane.items.size() >= model.effectiveBatchSize()) {
+				ready = takeItems(lane);
+			}
+		}
+		if (ready != null) {
+			dispatch(model, ready);
+		}
+		return item.future;
+	}
+
+	private void flush(SP_TEST3.ModelInfo model, Lane lane, long generation) {
+		List<Item> ready;
+		synchronized (lane) {
+			// 이미 크기 조건으로 전송된 배치면 무시
+			if (lane.generation != generation || lane.items.isEmpty()) {
+				return;
+			}
+			ready = takeItems(lane);
+		}
+		try {
+			sender.execute(() -> dispatch(model, ready));
+		} catch (RejectedExecutionException e) {
+			for (Item item : ready) {
+				item.future.completeExceptionally(e);
+			}
+		}
+	}
+
+	private List<Item> takeItems(Lane lane) {
+		List<Item> ready = lane.items;
+		lane.items = new ArrayList<>();
+		lane.generation++;
+		if (lane.deadline != null) {
+			lane.deadline.cancel(false);
+			lane.deadline = null;
+		}
+		return ready;
+	}
+
+	private void dispatch(SP_TEST3.ModelInfo model, List<Item> batch) {
+		long now = System.nanoTime();
+		LatencyHistogram queueDelay = queueDelays.computeIfAbsent(model.modelname, k -> new LatencyHistogram());
+		List<String> processed = new ArrayList<>(batch.size());
+		for (Item item : batch) {
+			queueDelay.record(now - item.enqueuedNanos);
+			processed.add(item.processed);
+		}
+		batchCount.increment();
+		itemCount.add(batch.size());
+		capacitySum.add(model.effectiveBatchSize());
+
+		modelClient.requestBatch(model, processed).whenComplete((codes, error) -> {
+			for (int i = 0; i < batch.size(); i++) {
+				if (error != null) {
+					batch.get(i).future.completeExceptionally(error);
+				} else {
+					batch.get(i).future.complete(codes.get(i));
+				}
+			}
+		});
+	}
+
+	public long getBatchCount() {
+		return batchCount.sum();
+	}
+
+	public long getItemCount() {
+		return itemCount.sum();
+	}
+
+	/**
+	 * 평균 배치 채움률 (전송한 질의 수 / 배치 최대 크기 합)
+	 */
+	public double getFillRatio() {
+		long capacity = capacitySum.sum();
+		return capacity == 0 ? 0 : (double) itemCount.sum() / capacity;
+	}
+
+	/**
+	 * 모델명 -> 질의별 큐 대기 시간 히스토그램 (제출부터 배치 전송까지, 지표 출력용 읽기 전용 뷰)
+	 */
+	public Map<String, LatencyHistogram> getQueueDelays() {
+		return Collections.unmodifiableMap(queueDelays);
+	}
+
+	public double getAvgQueueDelayMicros() {
+		long count = 0;
+		long sumNanos = 0;
+		for (LatencyHistogram h : queueDelays.values()) {
+			count += h.getCount();
+			sumNanos += h.getSumNanos();
+		}
+		return count == 0 ? 0 : sumNanos / 1000.0 / count;
+	}
+
+	public double getMaxQueueDelayMicros() {
+		long maxNanos = 0;
+		for (LatencyHistogram h : queueDelays.values()) {
+			maxNanos = Math.max(maxNanos, h.getMaxNanos());
+		}
+		return maxNanos / 1000.0;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("MicroBatcher[batches=%d, items=%d, fillRatio=%.3f, avgQueueDelay=%.1fus, maxQueueDelay=%.1fus]",
+				getBatchCount(), getItemCount(), getFillRatio(), getAvgQueueDelayMicros(), getMaxQueueDelayMicros());
+	}
+
+	@Override
+	protected void doStart() throws Exception {
+		scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+			Thread t = new Thread(r, "micro-batcher");
+			t.setDaemon(true);
+			return t;
+		});
+		scheduler.setRemoveOnCancelPolicy(true);
+		sender = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()), r -> {
+			Thread t = new Thread(r, "micro-batcher-send");
+			t.setDaemon(true);
+			return t;
+		});
+	}
+
+	@Override
+	protected void doStop() throws Exception {
+		// 이미 예약된 배치는 전송한 뒤 종료 (스케줄러가 끝난 뒤 전송 풀 종료, 통계는 /metrics)
+		scheduler.shutdown();
+		scheduler.awaitTermination(1, TimeUnit.SECONDS);
+		sender.shutdown();
+		sender.awaitTermination(1, TimeUnit.SECONDS);
+	}
+}
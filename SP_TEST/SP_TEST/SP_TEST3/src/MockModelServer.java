@@ -0,0 +1,181 @@
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.servlet.AsyncContext;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.servlet.ServletHandler;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * 테스트용 로컬 모델 서버
+ * - 단건 요청 {"query": "..."} -> {"result": "code"}
+ * - 배치 요청 {"queries": [...]} -> {"results": ["code", ...]}
+ * - MODELS.JSON에서 포트가 일치하는 모델(없으면 첫 번째 모델)의 class code 중 하나를 질의 해시로 골라 응답한다
+ * - 응답 지연은 비동기로 예약하므로 지연 중인 요청이 서버 스레드를 점유하지 않는다 (부하 테스트용)
+ * - slowPercent% 요청은 slowMs만큼 더 늦게, failPercent% 요청은 HTTP 503으로 응답한다 (꼬리 지연/재시도 테스트용)
+ * - GET 요청에는 받은 요청 수와 동시에 처리 중인 요청 수(현재/최대)를 응답한다
+ *   {"requests": n, "inFlight": n, "maxInFlight": n} (호출 측 동시 요청 상한 확인용)
+ *
+ * 실행: java MockModelServer [port=9010] [delayMs=0] [slowPercent=0] [slowMs=0] [failPercent=0]
+ */
+public class MockModelServer {
+	private static final List<String> codes = new ArrayList<>();
+	private static long delayMs;
+	private static int slowPercent;
+	private static long slowMs;
+	private static int failPercent;
+	private static final AtomicLong requests = new AtomicLong();
+	private static final AtomicInteger inFlight = new AtomicInteger();
+	private static final AtomicInteger maxInFlight = new AtomicInteger();
+	private static final ScheduledExecutorService delayer = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread t = new Thread(r, "mock-delay");
+		t.setDaemon(true);
+		return t;
+	});
+
+	public static void main(String[] args) throws Exception {
+		int port = args.length > 0 ? Integer.parseInt(args[0]) : 9010;
+		delayMs = args.length > 1 ? Long.parseLong(args[1]) : 0;
+		slowPercent = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+		slowMs = args.length > 3 ? Long.parseLong(args[3]) : 0;
+		failPercent = args.length > 4 ? Integer.parseInt(args[4]) : 0;
+		loadCodes("MODELS.JSON", port);
+
+		Server server = new Server(port);
+		ServletHandler handler = new ServletHandler();
+		handler.addServletWithMapping(ModelServlet.class, "/*").setAsyncSupported(true);
+		server.setHandler(handler);
+		server.start();
+		System.out.println("MockModelServer started: port=" + port + ", delayMs=" + delayMs + ", slow=" + slowPercent
+				+ "%/" + slowMs + "ms, fail=" + failPercent + "%, codes=" + codes);
+		server.join();
+	}
+
+	public static class ModelServlet extends HttpServlet {
+		private static final long serialVersionUID = 1L;
+		private static final Gson GSON = new Gson();
+
+		@Override
+		protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+			JsonObject stats = new JsonObject();
+			stats.addProperty("requests", requests.get());
+			stats.addProperty("inFlight", inFlight.get());
+			stats.addProperty("maxInFlight", maxInFlight.get());
+			write(resp, GSON.toJson(stats));
+		}
+
+		@Override
+		protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+			requests.incrementAndGet();
+			maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+			JsonObject body = GSON.fromJson(new InputStreamReader(req.getInputStream(), StandardCharsets.UTF_8),
+					JsonObject.class);
+			if (failPercent > 0 && ThreadLocalRandom.current().nextInt(100) < failPercent) {
+				inFlight.decrementAndGet();
+				resp.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+				return;
+			}
+			String json = respond(body);
+			long delay = delayMs;
+			if (slowPercent > 0 && ThreadLocalRandom.current().nextInt(100) < slowPercent) {
+				delay += slowMs;
+			}
+			if (delay > 0) {
+				AsyncContext async = req.startAsync();
+				async.setTimeout(0);
+				delayer.schedule(() -> {
+					inFlight.decrementAndGet();
+					try {
+						write(resp, json);
+					} catch (IOException e) {
+						// 클라이언트 연결 종료
+					}
+					async.complete();
+				}, delay, TimeUnit.MILLISECONDS);
+			} else {
+				inFlight.decrementAndGet();
+				write(resp, json);
+			}
+		}
+
+		private String respond(JsonObject body) {
+			JsonObject res = new JsonObject();
+			if (body.has("queries")) {
+				JsonArray results = new JsonArray();
+				for (JsonElement q : body.getAsJsonArray("queries")) {
+					results.add(classify(q.getAsString()));
+				}
+				res.add("results", results);
+			} else {
+				res.addProperty("result", classify(body.get("query").getAsString()));
+			}
+			return GSON.toJson(res);
+		}
+
+		private void write(HttpServletResponse resp, String json) throws IOException {
+			resp.setContentType("application/json");
+			resp.getWriter().write(json);
+		}
+
+		private String classify(String query) {
+			return codes.get(Math.floorMod(query.hashCode(), codes.size()));
+		}
+	}
+
+	// url 또는 replicas[].url 중 하나가 이 포트를 가리키는 모델인지
+	private static boolean servesPort(JsonObject model, int port) {
+		List<String> urls = new ArrayList<>();
+		if (model.has("url")) {
+			urls.add(model.get("url").getAsString());
+		}
+		if (model.has("replicas")) {
+			for (JsonElement r : model.getAsJsonArray("replicas")) {
+				urls.add(r.getAsJsonObject().get("url").getAsString());
+			}
+		}
+		for (String url : urls) {
+			if (url.endsWith(":" + port) || url.contains(":" + port + "/")) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static void loadCodes(String path, int port) throws IOException {
+		Gson gson = new Gson();
+		try (Reader reader = new FileReader(path)) {
+			JsonObject obj = gson.fromJson(reader, JsonObject.class);
+			JsonArray arr = obj.getAsJsonArray("models");
+			JsonObject selected = arr.get(0).getAsJsonObject();
+			for (JsonElement e : arr) {
+				if (servesPort(e.getAsJsonObject(), port)) {
+					selected = e.getAsJsonObject();
+					break;
+				}
+			}
+			for (JsonElement c : selected.getAsJsonArray("classes")) {
+				codes.add(c.getAsJsonObject().get("code").getAsString());
+			}
+		}
+	}
+}
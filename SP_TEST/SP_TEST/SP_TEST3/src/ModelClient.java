@@ -0,0 +1,292 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import org.eclipse.jetty.client.api.Result;
+import org.eclipse.jetty.client.util.BufferingResponseListener;
+import org.eclipse.jetty.client.util.StringContentProvider;
+import org.eclipse.jetty.http.HttpHeader;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * 모델 서버 비동기 호출 클라이언트
+ * - 공유 HttpClient 풀의 논블로킹 API로 요청을 보내고 CompletableFuture로 결과(class code)를 돌려준다
+ * - 단건 프로토콜과 배치 프로토콜(한 번의 POST에 여러 질의)을 모두 지원한다
+ * - 모델별 동시 요청 수는 InFlightLimiter로 제한한다, 호출 기한(callTimeoutMs)이 지나도록 대기한 요청은 보내지 않는다
+ * - 모델의 레플리카 중 하나를 ReplicaBalancer로 골라 보내며, 서킷이 열린 레플리카는 피한다
+ * - 엔드포인트(URL)별 CircuitBreaker가 열려 있으면 요청을 보내지 않고 즉시 실패한다
+ * - CallPolicy에 따라 멱등한 실패는 지터 백오프 후 재시도하고, 느린 응답은 다른 레플리카로 헤징한다
+ */
+public class ModelClient {
+	private static final Gson GSON = new Gson();
+	// 배치 응답까지 고려한 응답 버퍼 최대 크기
+	private static final int MAX_RESPONSE_BYTES = 16 * 1024 * 1024;
+
+	private final ModelClientPool clientPool;
+	private final int maxInFlightPerModel;
+	private final Map<String, InFlightLimiter> limiters = new ConcurrentHashMap<>();
+	private final Function<String, CircuitBreaker> breakerFactory;
+	private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+	private final CallPolicy policy;
+	private final long callTimeoutNanos;
+	// 호출 결과 수신자 (수락 제어)
+	private final CallListener callListener;
+	private final Map<String, CallPolicy.Stats> stats = new ConcurrentHashMap<>();
+
+	/**
+	 * 모델 서버 호출 하나의 결과 수신자
+	 */
+	public interface CallListener {
+		/**
+		 * @param nanos 모델별 동시 요청 대기열에 들어간 시점부터 완료까지 (대기 시간 포함)
+		 * @param overloaded 타임아웃, 서킷 열림, 전송 실패, 5xx/429 응답 등 과부하 신호인 실패면 true
+		 *   (성공이거나 429 외의 4xx처럼 요청 자체의 문제인 실패면 false)
+		 */
+		void onCall(long nanos, boolean overloaded);
+	}
+
+	/**
+	 * 모델 서버가 200이 아닌 상태 코드로 응답한 경우
+	 */
+	public static class StatusException extends IOException {
+		private static final long serialVersionUID = 1L;
+		private final int status;
+
+		public StatusException(int status) {
+			super("model server returned HTTP " + status);
+			this.status = status;
+		}
+
+		public int getStatus() {
+			return status;
+		}
+	}
+
+	public ModelClient(ModelClientPool clientPool, int maxInFlightPerModel,
+			Function<String, CircuitBreaker> breakerFactory, CallPolicy policy, long callTimeoutMs,
+			CallListener callListener) {
+		this.clientPool = clientPool;
+		this.maxInFlightPerModel = maxInFlightPerModel;
+		this.breakerFactory = breakerFactory;
+		this.policy = policy;
+		this.callTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(callTimeoutMs);
+		this.callListener = callListener;
+	}
+
+	/**
+	 * 전처리된 문장 하나를 모델 서버에 보내고 class code를 비동기로 반환
+	 * 요청: {"query": "..."} / 응답: {"result": "code"}
+	 */
+	public CompletableFuture<String> request(SP_TEST3.ModelInfo model, String processed) {
+		JsonObject body = new JsonObject();
+		body.addProperty("query", processed);
+		return call(model, body).thenApply(res -> res.get("result").getAsString());
+	}
+
+	/**
+	 * 전처리된 문장 여러 개를 한 번의 POST로 보내고 class code 목록을 입력 순서대로 반환
+	 * 요청: {"queries": ["...", ...]} / 응답: {"results": ["code", ...]}
+	 */
+	public CompletableFuture<List<String>> requestBatch(SP_TEST3.ModelInfo model, List<String> processed) {
+		JsonObject body = new JsonObject();
+		JsonArray arr = new JsonArray(processed.size());
+		for (String p : processed) {
+			arr.add(p);
+		}
+		body.add("queries", arr);
+		return call(model, body).thenApply(res -> {
+			JsonArray results = res.getAsJsonArray("results");
+			if (results == null || results.size() != processed.size()) {
+				throw new IllegalStateException("batch result size mismatch: expected " + processed.size());
+			}
+			List<String> codes = new ArrayList<>(results.size());
+			for (JsonElement e : results) {
+				codes.add(e.isJsonNull() ? null : e.getAsString());
+			}
+			return codes;
+		});
+	}
+
+	/**
+	 * 모델명 -> 동시 요청 제한기 (지표 출력용 읽기 전용 뷰)
+	 */
+	public Map<String, InFlightLimiter> getLimiters() {
+		return Collections.unmodifiableMap(limiters);
+	}
+
+	/**
+	 * URL -> 서킷 브레이커 (지표 출력용 읽기 전용 뷰)
+	 */
+	public Map<String, CircuitBreaker> getBreakers() {
+		return Collections.unmodifiableMap(breakers);
+	}
+
+	/**
+	 * 모델명 -> 재시도/헤징 통계 (지표 출력용 읽기 전용 뷰)
+	 */
+	public Map<String, CallPolicy.Stats> getStats() {
+		return Collections.unmodifiableMap(stats);
+	}
+
+	private InFlightLimiter limiterFor(String modelName) {
+		return limiters.computeIfAbsent(modelName, k -> new InFlightLimiter(maxInFlightPerModel));
+	}
+
+	private CircuitBreaker breakerFor(String url) {
+		return breakers.computeIfAbsent(url, breakerFactory);
+	}
+
+	// 재시도 포함 호출 (시도마다 레플리카를 새로 고른다, 기한은 첫 시도 기준으로 모든 시도에 공통)
+	// 레플리카가 없는 등 동기 예외도 반환한 future의 실패로 전달한다 (호출자가 기다리는 future가 항상 완료되도록)
+	private CompletableFuture<JsonObject> call(SP_TEST3.ModelInfo model, JsonObject body) {
+		CompletableFuture<JsonObject> result = new CompletableFuture<>();
+		attempt(model, body, 0, System.nanoTime() + callTimeoutNanos, result);
+		return result;
+	}
+
+	private void attempt(SP_TEST3.ModelInfo model, JsonObject body, int attempt, long deadlineNanos,
+			CompletableFuture<JsonObject> result) {
+		CallPolicy.Stats modelStats = stats.computeIfAbsent(model.modelname, k -> policy.newStats());
+		CompletableFuture<JsonObject> sent;
+		try {
+			sent = hedged(model, body, modelStats, deadlineNanos);
+		} catch (RuntimeException e) {
+			result.completeExceptionally(e);
+			return;
+		}
+		sent.whenComplete((res, error) -> {
+			if (error == null) {
+				result.complete(res);
+			} else if (attempt < policy.getMaxRetries() && policy.isRetryable(error)
+					&& System.nanoTime() - deadlineNanos < 0) {
+				modelStats.onRetry();
+				CompletableFuture.delayedExecutor(policy.backoffMs(attempt), TimeUnit.MILLISECONDS)
+						.execute(() -> attempt(model, body, attempt + 1, deadlineNanos, result));
+			} else {
+				result.completeExceptionally(error);
+			}
+		});
+	}
+
+	// 1차 요청을 보내고, 헤징 지연 안에 응답이 없으면 다른 레플리카로 한 번 더 보낸다 (먼저 성공한 응답 사용, 모두 실패하면 실패)
+	private CompletableFuture<JsonObject> hedged(SP_TEST3.ModelInfo model, JsonObject body, CallPolicy.Stats modelStats,
+			long deadlineNanos) {
+		ReplicaBalancer.Replica primary = model.balancer.select(this::isAvailable);
+		modelStats.onPrimary();
+		CompletableFuture<JsonObject> first = sendTo(model, primary, body, modelStats, deadlineNanos);
+		long delayNanos = modelStats.hedgeDelayNanos();
+		if (delayNanos < 0 || model.balancer.getReplicas().size() < 2) {
+			return first;
+		}
+		CompletableFuture<JsonObject> result = new CompletableFuture<>();
+		// 결과를 기다리는 요청 수 (1차 + 보낸 헤지), 0이 되면 모두 실패
+		AtomicInteger pending = new AtomicInteger(1);
+		first.whenComplete(settle(result, pending, null));
+		CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS).execute(() -> {
+			if (result.isDone()) {
+				return;
+			}
+			ReplicaBalancer.Replica other = model.balancer.selectOther(primary, this::isAvailable);
+			if (other == null) {
+				return;
+			}
+			// 헤지 자리를 먼저 잡는다: 1차 요청이 방금 실패해 결과가 이미 정해졌으면 예산을 쓰지 않고 끝
+			if (pending.getAndUpdate(p -> p == 0 ? 0 : p + 1) == 0) {
+				return;
+			}
+			if (!modelStats.tryHedge()) {
+				// 예산이 없으면 자리를 되돌린다, 그 사이 1차 요청이 실패했으면 결과를 그 실패로 완료
+				if (pending.decrementAndGet() == 0) {
+					first.whenComplete((res, error) -> result.completeExceptionally(error));
+				}
+				return;
+			}
+			other.assign();
+			sendTo(model, other, body, modelStats, deadlineNanos).whenComplete(settle(result, pending, modelStats));
+		});
+		return result;
+	}
+
+	private static BiConsumer<JsonObject, Throwable> settle(CompletableFuture<JsonObject> result, AtomicInteger pending,
+			CallPolicy.Stats hedgeStats) {
+		return (res, error) -> {
+			if (error == null) {
+				if (result.complete(res) && hedgeStats != null) {
+					hedgeStats.onHedgeWon();
+				}
+			} else if (pending.decrementAndGet() == 0) {
+				result.completeExceptionally(error);
+			}
+		};
+	}
+
+	private boolean isAvailable(ReplicaBalancer.Replica replica) {
+		return breakerFor(replica.getUrl()).isCallPermitted();
+	}
+
+	// 서킷 브레이커 확인 -> 모델별 동시 요청 제한 -> 전송 (서킷이 열려 있으면 대기열에도 넣지 않음)
+	// 헤징 지연용 응답 시간은 전송부터, 수락 제어에 넘기는 시간은 대기열 대기를 포함해 이 호출부터 잰다
+	private CompletableFuture<JsonObject> sendTo(SP_TEST3.ModelInfo model, ReplicaBalancer.Replica replica,
+			JsonObject body, CallPolicy.Stats modelStats, long deadlineNanos) {
+		String url = replica.getUrl();
+		long admitted = System.nanoTime();
+		return replica.track(breakerFor(url).call(() -> limiterFor(model.modelname).submit(() -> {
+			long start = System.nanoTime();
+			return send(url, body).whenComplete((res, error) -> {
+				if (error == null) {
+					modelStats.recordLatency(System.nanoTime() - start);
+				}
+			});
+		}, deadlineNanos))).whenComplete((res, error) -> callListener.onCall(System.nanoTime() - admitted,
+				error != null && isOverload(error)));
+	}
+
+	// 4xx(429 제외) 응답 외의 실패는 과부하 신호: 대기 기한 초과, 서킷 열림, 연결/응답 타임아웃, 5xx 등
+	private static boolean isOverload(Throwable error) {
+		Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+		if (cause instanceof StatusException) {
+			int status = ((StatusException) cause).getStatus();
+			return status >= 500 || status == 429;
+		}
+		return true;
+	}
+
+	private CompletableFuture<JsonObject> send(String url, JsonObject body) {
+		CompletableFuture<JsonObject> future = new CompletableFuture<>();
+		clientPool.POST(url).header(HttpHeader.CONTENT_TYPE, "application/json")
+				.content(new StringContentProvider(GSON.toJson(body)), "application/json")
+				.send(new BufferingResponseListener(MAX_RESPONSE_BYTES) {
+					@Override
+					public void onComplete(Result result) {
+						if (result.isFailed()) {
+							future.completeExceptionally(result.getFailure());
+							return;
+						}
+						int status = result.getResponse().getStatus();
+						if (status != 200) {
+							future.completeExceptionally(new StatusException(status));
+							return;
+						}
+						try {
+							future.complete(GSON.fromJson(getContentAsString(), JsonObject.class));
+						} catch (RuntimeException e) {
+							future.completeExceptionally(e);
+						}
+					}
+				});
+		return future;
+	}
+}
@@ -0,0 +1,102 @@
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jetty.client.HttpClient;
+import org.eclipse.jetty.client.api.Request;
+import org.eclipse.jetty.util.component.AbstractLifeCycle;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+
+/**
+ * 모델 서버 URL별 공유 HttpClient 풀
+ * - 요청마다 HttpClient를 생성/시작/종료하지 않고, URL별로 하나의 클라이언트를 재사용한다
+ * - Server에 빈으로 등록하면 서버와 함께 시작/종료된다
+ * - 커넥션은 keep-alive로 유지되며, 유휴 타임아웃이 지나면 닫힌다
+ * - virtualThreads가 켜져 있고 JDK가 지원하면 응답 처리 콜백을 가상 스레드에서 실행한다
+ */
+public class ModelClientPool extends AbstractLifeCycle {
+	private final Map<String, HttpClient> clients = new ConcurrentHashMap<>();
+	private final int maxConnectionsPerDestination;
+	private final long connectTimeoutMs;
+	private final long idleTimeoutMs;
+	private final long requestTimeoutMs;
+	private final boolean virtualThreads;
+
+	public ModelClientPool(int maxConnectionsPerDestination, long connectTimeoutMs, long idleTimeoutMs,
+			long requestTimeoutMs, boolean virtualThreads) {
+		this.maxConnectionsPerDestination = maxConnectionsPerDestination;
+		this.connectTimeoutMs = connectTimeoutMs;
+		this.idleTimeoutMs = idleTimeoutMs;
+		this.requestTimeoutMs = requestTimeoutMs;
+		this.virtualThreads = virtualThreads;
+	}
+
+	/**
+	 * 시스템 프로퍼티 설정값으로 풀 생성
+	 */
+	public static ModelClientPool fromSettings() {
+		return new ModelClientPool(
+				Settings.getInt("model.client.maxConnectionsPerDestination", 64),
+				Settings.getLong("model.client.connectTimeoutMs", 1000),
+				Settings.getLong("model.client.idleTimeoutMs", 30000),
+				Settings.getLong("model.client.requestTimeoutMs", 3000),
+				Settings.getBoolean("server.virtualThreads", false));
+	}
+
+	/**
+	 * URL에 해당하는 공유 클라이언트 반환 (없으면 생성 후 시작)
+	 */
+	public HttpClient clientFor(String url) {
+		if (!isRunning()) {
+			throw new IllegalStateException("ModelClientPool is not running");
+		}
+		return clients.computeIfAbsent(url, this::newClient);
+	}
+
+	/**
+	 * 요청 타임아웃이 적용된 POST 요청 생성
+	 */
+	public Request POST(String url) {
+		return clientFor(url).POST(url).timeout(requestTimeoutMs, TimeUnit.MILLISECONDS);
+	}
+
+	public long getRequestTimeoutMs() {
+		return requestTimeoutMs;
+	}
+
+	private HttpClient newClient(String url) {
+		Executor executor = virtualThreads ? VirtualThreadPool.create("model-client") : null;
+		if (executor == null) {
+			QueuedThreadPool pool = new QueuedThreadPool();
+			pool.setName("model-client");
+			pool.setDaemon(true);
+			executor = pool;
+		}
+
+		HttpClient httpClient = new HttpClient();
+		httpClient.setExecutor(executor);
+		httpClient.setMaxConnectionsPerDestination(maxConnectionsPerDestination);
+		httpClient.setConnectTimeout(connectTimeoutMs);
+		httpClient.setIdleTimeout(idleTimeoutMs);
+		httpClient.setFollowRedirects(false);
+		try {
+			httpClient.start();
+		} catch (Exception e) {
+			throw new IllegalStateException("HttpClient start failed: " + url, e);
+		}
+		return httpClient;
+	}
+
+	@Override
+	protected void doStop() throws Exception {
+		for (HttpClient httpClient : clients.values()) {
+			try {
+				httpClient.stop();
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
+		}
+		clients.clear();
+	}
+}
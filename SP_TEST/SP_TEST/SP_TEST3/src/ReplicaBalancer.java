@@ -0,0 +1,199 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * 모델 하나의 레플리카(URL + 가중치) 선택기
+ * - LEAST: 모든 레플리카 중 (진행 중 요청 수 + 1) / 가중치가 가장 작은 레플리카
+ * - P2C: 가중치에 비례해 두 레플리카를 무작위로 고르고 그중 부하가 작은 쪽 (power of two choices)
+ * - 사용 가능 여부(서킷 브레이커 등)를 만족하지 않는 레플리카는 건너뛰고, 모두 불가하면 가장 한가한 레플리카를 반환한다
+ * - 진행 중 요청 수는 track으로 감싼 future가 완료될 때 감소하며, 선택 경로에는 락이 없다
+ * - MODELS.JSON을 다시 로드하면 새 선택기를 만든다 (진행 중 요청 수는 이전 선택기 레플리카에서 정리된다)
+ */
+public class ReplicaBalancer {
+	public enum Strategy {
+		LEAST, P2C
+	}
+
+	/**
+	 * 레플리카 하나 (URL, 가중치, 진행 중 요청 수)
+	 */
+	public static class Replica {
+		private final String url;
+		private final int weight;
+		private final AtomicInteger outstanding = new AtomicInteger();
+		private final LongAdder requests = new LongAdder();
+
+		Replica(String url, int weight) {
+			this.url = url;
+			this.weight = Math.max(1, weight);
+		}
+
+		/**
+		 * 요청 하나를 이 레플리카에 배정 (이후 track으로 완료 시 감소)
+		 */
+		public void assign() {
+			outstanding.incrementAndGet();
+			requests.increment();
+		}
+
+		/**
+		 * 배정한 요청의 결과를 감싸 완료 시 진행 중 요청 수 감소
+		 */
+		public <T> CompletableFuture<T> track(CompletableFuture<T> future) {
+			return future.whenComplete((value, error) -> outstanding.decrementAndGet());
+		}
+
+		public String getUrl() {
+			return url;
+		}
+
+		public int getWeight() {
+			return weight;
+		}
+
+		public int getOutstanding() {
+			return outstanding.get();
+		}
+
+		public long getRequestCount() {
+			return requests.sum();
+		}
+
+		@Override
+		public String toString() {
+			return url + "(weight=" + weight + ")";
+		}
+	}
+
+	private final Replica[] replicas;
+	private final Strategy strategy;
+	// 가중치 누적합 (가중치 비례 무작위 선택용)
+	private final int[] cumulativeWeights;
+
+	public ReplicaBalancer(List<Replica> replicas, Strategy strategy) {
+		this.replicas = replicas.toArray(new Replica[0]);
+		this.strategy = strategy;
+		this.cumulativeWeights = new int[this.replicas.length];
+		int sum = 0;
+		for (int i = 0; i < this.replicas.length; i++) {
+			sum += this.replicas[i].weight;
+			cumulativeWeights[i] = sum;
+		}
+	}
+
+	/**
+	 * 모델 설정에서 선택기 생성 (replicas가 없으면 url 하나를 가중치 1로 사용)
+	 */
+	public static ReplicaBalancer of(SP_TEST3.ModelInfo model, Strategy strategy) {
+		List<Replica> list = new ArrayList<>();
+		if (model.replicas != null) {
+			for (SP_TEST3.ReplicaInfo r : model.replicas) {
+				if (r.url != null) {
+					list.add(new Replica(r.url, r.weight == null ? 1 : r.weight));
+				}
+			}
+		}
+		if (list.isEmpty() && model.url != null) {
+			list.add(new Replica(model.url, 1));
+		}
+		return new ReplicaBalancer(list, strategy);
+	}
+
+	/**
+	 * 요청을 보낼 레플리카 선택 후 진행 중 요청 수 증가 (호출자는 반드시 track으로 결과를 감싼다)
+	 */
+	public Replica select(Predicate<Replica> available) {
+		Replica chosen = choose(available);
+		chosen.assign();
+		return chosen;
+	}
+
+	/**
+	 * exclude가 아닌 사용 가능한 레플리카 중 가장 한가한 것 (없으면 null, 헤지 요청용)
+	 * 진행 중 요청 수는 늘리지 않으므로 실제로 보낼 때 assign을 호출한다
+	 */
+	public Replica selectOther(Replica exclude, Predicate<Replica> available) {
+		if (replicas.length < 2) {
+			return null;
+		}
+		Replica chosen = leastLoaded(r -> r != exclude && available.test(r));
+		return chosen == exclude || !available.test(chosen) ? null : chosen;
+	}
+
+	public List<Replica> getReplicas() {
+		return List.of(replicas);
+	}
+
+	private Replica choose(Predicate<Replica> available) {
+		if (replicas.length == 0) {
+			throw new IllegalStateException("no replica configured");
+		}
+		if (replicas.length == 1) {
+			return replicas[0];
+		}
+		if (strategy == Strategy.P2C) {
+			Replica a = sample();
+			Replica b = sample();
+			if (a == b) {
+				b = sample();
+			}
+			boolean okA = available.test(a);
+			boolean okB = available.test(b);
+			if (okA && okB) {
+				return lighter(a, b);
+			}
+			if (okA || okB) {
+				return okA ? a : b;
+			}
+			// 둘 다 사용 불가: 전체에서 다시 찾는다
+		}
+		return leastLoaded(available);
+	}
+
+	// 사용 가능한 레플리카 중 가장 한가한 것 (같으면 무작위 시작 위치 기준 앞쪽), 없으면 전체 중 가장 한가한 것
+	private Replica leastLoaded(Predicate<Replica> available) {
+		int start = ThreadLocalRandom.current().nextInt(replicas.length);
+		Replica best = null;
+		Replica bestAny = null;
+		for (int i = 0; i < replicas.length; i++) {
+			Replica r = replicas[(start + i) % replicas.length];
+			if (bestAny == null || lighterThan(r, bestAny)) {
+				bestAny = r;
+			}
+			if ((best == null || lighterThan(r, best)) && available.test(r)) {
+				best = r;
+			}
+		}
+		return best != null ? best : bestAny;
+	}
+
+	private static Replica lighter(Replica a, Replica b) {
+		return lighterThan(b, a) ? b : a;
+	}
+
+	// (진행 중 + 1) / 가중치 비교 (정수 교차 곱)
+	private static boolean lighterThan(Replica a, Replica b) {
+		return (long) (a.outstanding.get() + 1) * b.weight < (long) (b.outstanding.get() + 1) * a.weight;
+	}
+
+	// 가중치 비례 무작위 선택
+	private Replica sample() {
+		int target = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+		int low = 0;
+		int high = cumulativeWeights.length - 1;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (cumulativeWeights[mid] <= target) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return replicas[low];
+	}
+}
@@ -0,0 +1,98 @@
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jetty.util.component.AbstractLifeCycle;
+
+/**
+ * 리소스 파일 감시 (WatchService)
+ * - 디렉터리에서 지정한 파일이 생성/수정되면 debounce 시간 동안 추가 변경이 없을 때까지 기다린 뒤 reload를 한 번 호출한다
+ *   (편집기가 파일을 여러 번에 나눠 쓰는 동안 반쯤 쓰인 파일을 읽지 않도록)
+ * - reload는 감시 스레드에서 실행되므로 요청 처리와 무관하게 백그라운드에서 새 스냅숏을 만든다
+ * - reload가 실패하면 로그만 남기고 다음 변경을 계속 감시한다
+ */
+public class ResourceWatcher extends AbstractLifeCycle {
+	private final Path directory;
+	private final Set<String> fileNames;
+	private final long debounceMs;
+	private final Reloader reloader;
+	private WatchService watchService;
+	private Thread thread;
+
+	/**
+	 * 파일 변경 시 호출할 재로드 작업
+	 */
+	public interface Reloader {
+		void reload() throws Exception;
+	}
+
+	public ResourceWatcher(Path directory, Set<String> fileNames, long debounceMs, Reloader reloader) {
+		this.directory = directory;
+		this.fileNames = fileNames;
+		this.debounceMs = debounceMs;
+		this.reloader = reloader;
+	}
+
+	@Override
+	protected void doStart() throws Exception {
+		watchService = FileSystems.getDefault().newWatchService();
+		directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+		thread = new Thread(this::watch, "resource-watcher");
+		thread.setDaemon(true);
+		thread.start();
+		System.out.println("리소스 감시 시작: " + directory + " " + fileNames);
+	}
+
+	@Override
+	protected void doStop() throws Exception {
+		// take/poll 대기 중인 감시 스레드는 ClosedWatchServiceException으로 종료된다
+		watchService.close();
+		thread.join(1000);
+	}
+
+	private void watch() {
+		try {
+			while (true) {
+				if (!drainEvents(watchService.take())) {
+					continue;
+				}
+				// 마지막 변경 후 debounceMs 동안 조용해질 때까지 대기
+				WatchKey key;
+				while ((key = watchService.poll(debounceMs, TimeUnit.MILLISECONDS)) != null) {
+					drainEvents(key);
+				}
+				reload();
+			}
+		} catch (ClosedWatchServiceException | InterruptedException e) {
+			// 종료
+		}
+	}
+
+	// 키의 이벤트를 모두 소비하고, 감시 대상 파일의 변경이 있었는지 반환
+	private boolean drainEvents(WatchKey key) {
+		boolean relevant = false;
+		for (WatchEvent<?> event : key.pollEvents()) {
+			if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+				relevant = true;
+			} else if (fileNames.contains(((Path) event.context()).getFileName().toString())) {
+				relevant = true;
+			}
+		}
+		key.reset();
+		return relevant;
+	}
+
+	private void reload() {
+		try {
+			reloader.reload();
+		} catch (Exception e) {
+			System.err.println("리소스 재로드 실패 (기존 스냅숏 유지): " + e);
+		}
+	}
+}
@@ -0,0 +1,237 @@
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 전처리 문자열 -> class code 결과 캐시 (모델별)
+ * - 세그먼트 LRU(SLRU): 처음 들어온 항목은 probation 영역, 다시 조회된 항목은 protected 영역으로 승격
+ * - 최대 크기 + TTL로 제거하며, 락 경합을 줄이기 위해 키 해시로 세그먼트를 나눈다
+ * - single-flight: 같은 질의가 동시에 들어오면 모델 호출은 한 번만 하고 결과를 공유한다
+ *   진행 중 항목은 loader의 future가 완료되거나(예외 포함) inFlightTimeoutMs가 지나면 제거한다
+ * - 캐시는 리소스 스냅숏의 ModelInfo 객체별로 두고, 리소스를 교체하면 reset으로 새 스냅숏의 모델로 다시 만든다
+ *   (모델 URL/클래스가 바뀐 뒤 이전 모델 서버의 결과를 돌려주지 않음)
+ *   교체 전 스냅숏으로 처리 중인 요청은 캐시를 거치지 않고 모델을 호출하며, 이전 캐시에 남은 결과는 버려진다
+ */
+public class ResultCache {
+	private static final int STRIPES = 16;
+
+	private final int maxSizePerModel;
+	private final long ttlNanos;
+	private final long inFlightTimeoutMs;
+	// 현재 스냅숏의 ModelInfo -> 캐시 (객체 동일성 기준, reset마다 통째로 교체하는 읽기 전용 맵)
+	private volatile Map<SP_TEST3.ModelInfo, ModelCache> caches = Map.of();
+
+	// 통계
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder joins = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	private final LongAdder inFlightTimeouts = new LongAdder();
+
+	/**
+	 * @param inFlightTimeoutMs 진행 중 항목을 기다리는 최대 시간 (이후 합류한 호출자 모두 TimeoutException으로 실패, 0 이하면 제한 없음)
+	 */
+	public ResultCache(int maxSizePerModel, long ttlMs, long inFlightTimeoutMs) {
+		this.maxSizePerModel = maxSizePerModel;
+		this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+		this.inFlightTimeoutMs = inFlightTimeoutMs;
+	}
+
+	/**
+	 * 리소스 스냅숏 교체 시 호출: 기존 결과를 모두 버리고 models마다 빈 캐시를 만든다
+	 */
+	public void reset(Collection<SP_TEST3.ModelInfo> models) {
+		Map<SP_TEST3.ModelInfo, ModelCache> fresh = new IdentityHashMap<>();
+		if (maxSizePerModel > 0) {
+			for (SP_TEST3.ModelInfo model : models) {
+				fresh.put(model, new ModelCache());
+			}
+		}
+		caches = Collections.unmodifiableMap(fresh);
+	}
+
+	/**
+	 * 캐시 조회, 없으면 loader로 모델 호출 (loader는 미스일 때 호출 스레드에서 한 번만 실행)
+	 * 실패하거나 null인 결과는 캐시하지 않는다, 현재 스냅숏의 모델이 아니면 캐시 없이 loader를 호출한다
+	 */
+	public CompletableFuture<String> get(SP_TEST3.ModelInfo model, String processed,
+			Function<String, CompletableFuture<String>> loader) {
+		ModelCache cache = caches.get(model);
+		if (cache == null) {
+			return loader.apply(processed);
+		}
+		String cached = cache.segmentFor(processed).get(processed);
+		if (cached != null) {
+			hits.increment();
+			return CompletableFuture.completedFuture(cached);
+		}
+
+		CompletableFuture<String> created = new CompletableFuture<>();
+		CompletableFuture<String> existing = cache.inFlight.putIfAbsent(processed, created);
+		if (existing != null) {
+			joins.increment();
+			return existing;
+		}
+		misses.increment();
+		// 완료(성공/실패/타임아웃) 즉시 진행 중 항목 제거 -> loader가 끝내 완료하지 않아도 항목이 남지 않는다
+		created.whenComplete((code, error) -> cache.inFlight.remove(processed, created));
+		if (inFlightTimeoutMs > 0) {
+			created.orTimeout(inFlightTimeoutMs, TimeUnit.MILLISECONDS).whenComplete((code, error) -> {
+				if (error instanceof TimeoutException) {
+					inFlightTimeouts.increment();
+				}
+			});
+		}
+
+		CompletableFuture<String> loaded;
+		try {
+			loaded = loader.apply(processed);
+		} catch (RuntimeException e) {
+			loaded = CompletableFuture.failedFuture(e);
+		}
+		loaded.whenComplete((code, error) -> {
+			if (error == null && code != null) {
+				cache.segmentFor(processed).put(processed, code);
+			}
+			if (error != null) {
+				created.completeExceptionally(error);
+			} else {
+				created.complete(code);
+			}
+		});
+		return created;
+	}
+
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+	/**
+	 * 진행 중인 동일 질의에 합류(single-flight)한 횟수
+	 */
+	public long getJoinCount() {
+		return joins.sum();
+	}
+
+	public long getEvictionCount() {
+		return evictions.sum();
+	}
+
+	/**
+	 * loader가 inFlightTimeoutMs 안에 완료하지 않아 진행 중 항목을 버린 횟수
+	 */
+	public long getInFlightTimeoutCount() {
+		return inFlightTimeouts.sum();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("ResultCache[hits=%d, misses=%d, joins=%d, evictions=%d]", getHitCount(), getMissCount(),
+				getJoinCount(), getEvictionCount());
+	}
+
+	/**
+	 * 모델 하나의 캐시 (세그먼트 + 진행 중 요청)
+	 */
+	private class ModelCache {
+		private final Segment[] segments = new Segment[STRIPES];
+		private final Map<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+
+		ModelCache() {
+			int capacity = Math.max(1, (maxSizePerModel + STRIPES - 1) / STRIPES);
+			for (int i = 0; i < STRIPES; i++) {
+				segments[i] = new Segment(capacity);
+			}
+		}
+
+		Segment segmentFor(String key) {
+			int h = key.hashCode();
+			return segments[(h ^ (h >>> 16)) & (STRIPES - 1)];
+		}
+	}
+
+	private static class Entry {
+		private final String value;
+		private final long expiresAt;
+
+		Entry(String value, long expiresAt) {
+			this.value = value;
+			this.expiresAt = expiresAt;
+		}
+	}
+
+	/**
+	 * SLRU 세그먼트 (probation 20%, protected 80%)
+	 */
+	private class Segment {
+		private final int probationCapacity;
+		private final int protectedCapacity;
+		private final LinkedHashMap<String, Entry> probation = new LinkedHashMap<>(16, 0.75f, true);
+		private final LinkedHashMap<String, Entry> protectedArea = new LinkedHashMap<>(16, 0.75f, true);
+
+		Segment(int capacity) {
+			this.probationCapacity = Math.max(1, capacity / 5);
+			this.protectedCapacity = Math.max(1, capacity - probationCapacity);
+		}
+
+		synchronized String get(String key) {
+			long now = System.nanoTime();
+			Entry entry = protectedArea.get(key);
+			if (entry != null) {
+				if (now - entry.expiresAt >= 0) {
+					protectedArea.remove(key);
+					return null;
+				}
+				return entry.value;
+			}
+			entry = probation.remove(key);
+			if (entry == null) {
+				return null;
+			}
+			if (now - entry.expiresAt >= 0) {
+				return null;
+			}
+			// 두 번째 조회: protected 영역으로 승격, 넘치면 가장 오래된 항목을 probation으로 강등
+			protectedArea.put(key, entry);
+			if (protectedArea.size() > protectedCapacity) {
+				Iterator<Map.Entry<String, Entry>> it = protectedArea.entrySet().iterator();
+				Map.Entry<String, Entry> eldest = it.next();
+				it.remove();
+				addProbation(eldest.getKey(), eldest.getValue());
+			}
+			return entry.value;
+		}
+
+		synchronized void put(String key, String value) {
+			Entry entry = new Entry(value, System.nanoTime() + ttlNanos);
+			if (protectedArea.containsKey(key)) {
+				protectedArea.put(key, entry);
+				return;
+			}
+			addProbation(key, entry);
+		}
+
+		private void addProbation(String key, Entry entry) {
+			probation.put(key, entry);
+			if (probation.size() > probationCapacity) {
+				Iterator<String> it = probation.keySet().iterator();
+				it.next();
+				it.remove();
+				evictions.increment();
+			}
+		}
+	}
+}
@@ -1,23 +1,33 @@
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
 import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-import org.eclipse.jetty.client.HttpClient;
-import org.eclipse.jetty.client.api.ContentResponse;
-import org.eclipse.jetty.client.util.StringContentProvider;
-import org.eclipse.jetty.http.HttpHeader;
 import org.eclipse.jetty.server.Server;
 import org.eclipse.jetty.servlet.ServletHandler;
 
@@ -25,30 +35,152 @@ import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 
 public class SP_TEST3 {
-	private static final Map<String, String> dictionary = new HashMap<>();
-	private static final Set<String> stopwords = new HashSet<>();
-	private static final List<ModelInfo> models = new ArrayList<>();
+	// 사전/모델 스냅숏 (파일 변경 시 새 스냅숏을 만들어 참조만 교체, 조회 경로에는 락 없음)
+	private static volatile Resources resources;
+	// 아래 구성 요소는 설정 파일/명령행 인자를 읽은 뒤 configure()에서 생성한다
+	// 모델 서버 호출용 공유 HttpClient 풀 (서버와 함께 시작/종료)
+	private static ModelClientPool clientPool;
+	// 모델 서버 비동기 호출 (모델별 동시 요청 수 제한, 엔드포인트별 서킷 브레이커, 재시도/헤징)
+	private static ModelClient modelClient;
+	// 요청 간 마이크로 배칭 (배치 모드 모델, 대기 시간 0이면 요청 단위 배치만 사용)
+	private static long batchMaxDelayMicros;
+	private static MicroBatcher batcher;
+	// 전처리 문자열 -> class code 결과 캐시 (모델별, 크기 0이면 사용 안 함)
+	private static ResultCache resultCache;
+	// 질의 하나의 최대 대기 시간 (초과 시 해당 슬롯만 unknown 처리)
+	private static long queryTimeoutMs;
+	// 요청 하나가 모델에 보냈고 응답에 아직 쓰지 않은 최대 질의 수 (차면 본문 읽기를 멈춤, 요청당 동시 모델 호출 상한)
+	private static int streamWindow;
+	// 비동기 요청 하나의 최대 처리 시간 (초과 시 완료되지 않은 질의는 unknown으로 응답)
+	private static long asyncTimeoutMs;
+	// 사전 바이너리 이미지 경로
+	private static String dictionaryImage;
+	// 단계별 지연 시간/오류 지표 (GET /metrics)
+	private static Metrics metrics;
+	// 요청 수락 제어 (적응형 동시 처리 한도, 모델별 한도) 및 거절 응답의 Retry-After (초)
+	private static AdmissionController admission;
+	private static int retryAfterSeconds;
 
+	/**
+	 * 실행: java SP_TEST3 [--config=SP_TEST3.properties] [--key=value ...]
+	 * 설정 우선순위: 명령행 인자 > -D 시스템 프로퍼티 > 설정 파일 > 기본값
+	 */
 	public static void main(String[] args) throws Exception {
-		loadDictionary("DICTIONARY.TXT");
-		loadStopwords("STOPWORD.TXT");
-		loadModels("MODELS.JSON");
+		Settings.init(args, "SP_TEST3.properties");
+		configure();
+		resources = Resources.load();
+		resultCache.reset(resources.modelIndex.values());
 
-		Server server = new Server(8080);
+		// 요청 스레드는 모델 응답을 기다리지 않으므로 동시 요청 수가 스레드 수에 묶이지 않는다
+		Server server = ServerFactory.create();
+		server.addBean(clientPool);
+		server.addBean(batcher);
+		if (Settings.getBoolean("reload.enabled", true)) {
+			// 사전/불용어/모델 파일이 바뀌면 백그라운드에서 다시 로드해 교체
+			server.addBean(new ResourceWatcher(Path.of("").toAbsolutePath(),
+					Set.of("DICTIONARY.TXT", "STOPWORD.TXT", "MODELS.JSON", Path.of(dictionaryImage).getFileName().toString()),
+					Settings.getLong("reload.debounceMs", 500), SP_TEST3::reloadResources));
+		}
+		server.setStopAtShutdown(true);
 		ServletHandler handler = new ServletHandler();
-		handler.addServletWithMapping(MainServlet.class, "/");
+		handler.addServletWithMapping(MainServlet.class, "/").setAsyncSupported(true);
+		handler.addServletWithMapping(MetricsServlet.class, "/metrics");
 		server.setHandler(handler);
 		server.start();
 		server.join();
 	}
 
+	private static void configure() {
+		clientPool = ModelClientPool.fromSettings();
+		int failureThreshold = Settings.getInt("model.circuit.failureThreshold", 5);
+		long openTimeoutMs = Settings.getLong("model.circuit.openTimeoutMs", 5000);
+		int halfOpenMaxCalls = Settings.getInt("model.circuit.halfOpenMaxCalls", 2);
+		queryTimeoutMs = Settings.getLong("model.queryTimeoutMs", 5000);
+		admission = AdmissionController.fromSettings();
+		modelClient = new ModelClient(clientPool, Settings.getInt("model.maxInFlightPerModel", 32),
+				url -> new CircuitBreaker(url, failureThreshold, openTimeoutMs, halfOpenMaxCalls),
+				CallPolicy.fromSettings(), queryTimeoutMs, admission::onModelCall);
+		batchMaxDelayMicros = Settings.getLong("model.batch.maxDelayMicros", 5000);
+		batcher = new MicroBatcher(modelClient, batchMaxDelayMicros);
+		resultCache = new ResultCache(Settings.getInt("model.cache.maxSize", 10000),
+				Settings.getLong("model.cache.ttlMs", 60000), queryTimeoutMs);
+		streamWindow = Settings.getInt("model.stream.window", 256);
+		asyncTimeoutMs = Settings.getLong("server.asyncTimeoutMs", 10000);
+		dictionaryImage = Settings.getString("dictionary.image", "DICTIONARY.BIN");
+		metrics = new Metrics();
+		retryAfterSeconds = Settings.getInt("admission.retryAfterSeconds", 1);
+	}
+
+	/**
+	 * 한 시점의 사전과 모델 인덱스 (생성 후 변경하지 않음)
+	 * - 요청 처리는 시작 시 스냅숏 참조를 한 번 읽어 끝까지 같은 스냅숏을 사용한다
+	 */
+	static final class Resources {
+		final VectorDictionary dictionary;
+		// 모델명 -> 모델 정보 (불변 인덱스)
+		final Map<String, ModelInfo> modelIndex;
+
+		private Resources(VectorDictionary dictionary, Map<String, ModelInfo> modelIndex) {
+			this.dictionary = dictionary;
+			this.modelIndex = modelIndex;
+		}
+
+		static Resources load() throws IOException {
+			long start = System.nanoTime();
+			VectorDictionary dictionary;
+			if (DictionaryImage.isUpToDate(dictionaryImage, "DICTIONARY.TXT", "STOPWORD.TXT")) {
+				// 미리 컴파일된 바이너리 이미지를 메모리 매핑 (파싱 없음)
+				DictionaryImage loaded = DictionaryImage.load(dictionaryImage);
+				dictionary = loaded.dictionary();
+				System.out.println("사전 이미지 로드: " + dictionaryImage + ", 불용어 벡터 제외 " + loaded.excludedCount() + "건");
+			} else {
+				dictionary = loadDictionary("DICTIONARY.TXT", loadStopwords("STOPWORD.TXT"));
+			}
+			double ms = (System.nanoTime() - start) / 1_000_000.0;
+			Map<String, ModelInfo> modelIndex = indexModels(loadModels("MODELS.JSON"));
+			System.out.printf("사전 로드: %s, %d entries, 약 %d KB, %.1f ms, 모델 %d개%n", dictionary.getClass().getSimpleName(),
+					dictionary.size(), dictionary.footprintBytes() / 1024, ms, modelIndex.size());
+			return new Resources(dictionary, modelIndex);
+		}
+	}
+
+	// 새 스냅숏을 모두 만든 뒤에만 교체 (로드 실패 시 기존 스냅숏 유지)
+	static void reloadResources() throws IOException {
+		long start = System.nanoTime();
+		resources = Resources.load();
+		// 모델 정보가 바뀌었을 수 있으므로 이전 스냅숏의 결과 캐시는 버린다
+		resultCache.reset(resources.modelIndex.values());
+		System.out.printf("리소스 재로드 완료: %.1f ms%n", (System.nanoTime() - start) / 1_000_000.0);
+	}
+
 	// 모델 정보 클래스
 	public static class ModelInfo {
 		String modelname;
+		// 레플리카가 하나면 url, 여러 개면 replicas (둘 다 있으면 replicas 사용)
 		String url;
+		List<ReplicaInfo> replicas;
 		List<ClassInfo> classes;
+		// 배치 프로토콜 사용 여부 및 한 번에 보낼 최대 질의 수 (MODELS.JSON에서 선택적으로 지정)
+		boolean batch;
+		int maxBatchSize;
+
+		// class code -> value (로드 시 생성하는 불변 인덱스)
+		transient Map<String, String> classIndex = Map.of();
+		// 레플리카 선택기 (로드 시 생성)
+		transient ReplicaBalancer balancer;
+
+		int effectiveBatchSize() {
+			return maxBatchSize > 0 ? maxBatchSize : 32;
+		}
+
+		// class code에 해당하는 value 반환 (없거나 null이면 unknown)
+		String valueOf(String code) {
+			return code == null ? "unknown" : classIndex.getOrDefault(code, "unknown");
+		}
 	}
 
 	public static class ClassInfo {
@@ -56,107 +188,755 @@ public class SP_TEST3 {
 		String value;
 	}
 
+	// 모델 레플리카 (weight 생략 시 1)
+	public static class ReplicaInfo {
+		String url;
+		Integer weight;
+	}
+
 	// 메인 서블릿
 	public static class MainServlet extends HttpServlet {
+		private static final long serialVersionUID = 1L;
+		private static final ThreadLocal<Tokenizer> TOKENIZER = ThreadLocal.withInitial(Tokenizer::new);
+
+		/**
+		 * 요청 본문을 JsonReader로 읽으면서 질의를 바로 전처리/전송하고, 결과는 JsonWriter로 순서대로 쓴다
+		 * - 요청 전체를 JsonObject 트리나 문자열로 만들지 않는다
+		 * - 모델에 보냈지만 응답에 아직 쓰지 않은 질의는 streamWindow개까지만 둔다: 윈도우가 차면 본문 읽기를 멈추고
+		 *   요청 스레드를 반환하며, 앞쪽 결과를 기록해 절반 이하로 줄면 서버 스레드에서 이어 읽는다
+		 * - 결과는 WriteListener로 출력이 준비됐을 때만 보낸다 (모델 응답 스레드가 느린 클라이언트를 기다리지 않음)
+		 *   출력이 밀리면 윈도우가 비지 않으므로 본문 읽기와 모델 호출도 함께 멈춘다
+		 * - queries가 modelname보다 먼저 오면 모델을 알 때까지 전처리 결과만 보관한다 (이 보관분은 윈도우에 들지 않고,
+		 *   모델을 알게 된 뒤 윈도우 단위로 나눠 보낸다)
+		 * - 단계별 소요 시간(parse, preprocess, model, write, total)은 완료 시 모델별 히스토그램에 한 번 기록한다
+		 * - 동시 처리 한도를 넘는 요청은 본문을 읽지 않고 바로 503 + Retry-After로 거절한다
+		 */
 		@Override
 		protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws IOException {
-			Gson gson = new Gson();
-			JsonObject requestJson = gson.fromJson(new InputStreamReader(req.getInputStream()), JsonObject.class);
-			String modelName = requestJson.get("modelname").getAsString();
-			JsonArray queries = requestJson.getAsJsonArray("queries");
-
-			ModelInfo model = models.stream().filter(m -> m.modelname.equals(modelName)).findFirst().orElse(null);
-			if (model == null) {
-				resp.setStatus(400);
-				resp.getWriter().write("{\"error\":\"Model not found\"}");
+			long startNanos = System.nanoTime();
+			if (!admission.tryAcquire()) {
+				metrics.error(Metrics.NO_MODEL, "overloaded");
+				resp.setStatus(503);
+				resp.setContentType("application/json");
+				resp.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+				resp.getWriter().write("{\"error\":\"Server busy\"}");
 				return;
 			}
+			metrics.requestStarted();
+			AsyncContext async = req.startAsync();
+			async.setTimeout(asyncTimeoutMs);
+			ResultStream stream = new ResultStream(async, resp, startNanos, resources,
+					new JsonReader(new InputStreamReader(req.getInputStream())));
+			async.addListener(stream);
+			stream.read();
+		}
+
+		/**
+		 * 요청 하나의 본문 읽기/질의 전송/결과 기록 상태
+		 * - 본문 읽기(read)는 한 번에 한 스레드만 진행한다: 요청 스레드가 읽다가 윈도우가 차면 멈추고,
+		 *   writeReady가 자리가 난 것을 보고 AsyncContext.start로 서버 스레드에서 이어 읽는다
+		 * - pending, 출력, 멈춤/완료 상태는 모델 응답 스레드, 출력 준비 콜백, 타임아웃 스레드도 다루므로 이 객체로 동기화하고
+		 *   한 번만 완료한다
+		 * - 결과는 buffer에 JSON으로 쓴 뒤 출력이 준비됐을 때(isReady) 비동기로 보내므로 락 안에서 블로킹 쓰기를 하지 않는다
+		 * - 시간 측정 필드 중 본문 읽기 관련 값은 읽는 스레드만 쓰고, 완료 시(동기화 블록 안) 읽는다
+		 */
+		private class ResultStream implements AsyncListener, WriteListener {
+			private final AsyncContext async;
+			private final HttpServletResponse resp;
+			// 요청 시작 시의 스냅숏 (처리 중 리소스가 교체되어도 끝까지 사용)
+			private final Resources current;
+			private final JsonReader reader;
+
+			// 본문 읽기 상태 (읽는 스레드만 사용)
+			private boolean begun;
+			private boolean inQueries;
+			private boolean bodyDone;
+			private boolean modelSeen;
+			private ModelInfo model;
+			private final List<String> unsent = new ArrayList<>();
+
+			// 아래 필드는 this로 동기화
+			// 모델에 보냈고 아직 응답에 쓰지 않은 질의 (최대 streamWindow개)
+			private final Queue<CompletableFuture<String>> pending = new ArrayDeque<>();
+			private boolean paused;
+			private long pausedAtNanos;
+			private boolean finishing;
+			// 마지막 출력을 보냈고 그 출력이 끝나면 완료
+			private boolean completing;
+			private boolean done;
+			// writeReady를 예약해 둔 맨 앞 결과 (같은 future에 중복 예약 방지)
+			private CompletableFuture<String> awaitedHead;
+			// 첫 출력 시 WriteListener를 등록한 출력 스트림, 결과 JSON은 buffer에 쓴 뒤 보낸다
+			private ServletOutputStream out;
+			private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+			private JsonWriter writer;
+			// 모델별 한도를 차지한 모델명 (완료 시 반납)
+			private String admittedModel;
+
+			// 단계별 소요 시간 (나노초)
+			private final long startNanos;
+			private long preprocessNanos;
+			private long dispatchNanos;
+			private long pausedNanos;
+			private long bodyReadNanos;
+			private long firstDispatchNanos;
+			private long writeNanos;
+
+			ResultStream(AsyncContext async, HttpServletResponse resp, long startNanos, Resources current,
+					JsonReader reader) {
+				this.async = async;
+				this.resp = resp;
+				this.startNanos = startNanos;
+				this.current = current;
+				this.reader = reader;
+			}
+
+			// 본문을 읽으며 질의를 전처리/전송하고, 다 읽으면 남은 질의를 보낸 뒤 기록을 마무리하도록 표시
+			// 윈도우가 차면 그 자리에서 반환한다 (자리가 나면 writeReady가 서버 스레드에서 다시 호출)
+			void read() {
+				try {
+					if (!bodyDone) {
+						if (!parse()) {
+							return;
+						}
+						bodyDone = true;
+						bodyRead();
+						if (!modelSeen) {
+							error(400, "Model not found", "model_not_found");
+							return;
+						}
+					}
+					while (!unsent.isEmpty()) {
+						if (pauseIfFull()) {
+							return;
+						}
+						dispatch();
+					}
+					synchronized (this) {
+						finishing = true;
+						writeReady();
+					}
+				} catch (IOException | IllegalStateException e) {
+					// 잘못된 JSON (MalformedJsonException, 토큰 타입 불일치), 이미 완료된 요청이면 무시됨
+					bodyRead();
+					error(400, "Invalid request", "invalid_request");
+				}
+			}
+
+			// 본문 끝까지 읽으면 true, 윈도우가 차 멈추거나 오류로 완료했으면 false
+			private boolean parse() throws IOException {
+				if (!begun) {
+					reader.beginObject();
+					begun = true;
+				}
+				while (true) {
+					if (inQueries) {
+						if (!reader.hasNext()) {
+							reader.endArray();
+							inQueries = false;
+							continue;
+						}
+						if (model != null && unsent.size() + pendingSize() >= streamWindow) {
+							dispatch();
+							if (pauseIfFull()) {
+								return false;
+							}
+						}
+						String query = reader.nextString();
+						long t = System.nanoTime();
+						String processed = preprocess(query, current.dictionary);
+						preprocessNanos += System.nanoTime() - t;
+						unsent.add(processed);
+						continue;
+					}
+					if (!reader.hasNext()) {
+						break;
+					}
+					String name = reader.nextName();
+					if ("modelname".equals(name)) {
+						ModelInfo found = current.modelIndex.get(reader.nextString());
+						if (found == null) {
+							bodyRead();
+							error(400, "Model not found", "model_not_found");
+							return false;
+						}
+						if (!start(found)) {
+							return false;
+						}
+						modelSeen = true;
+					} else if ("queries".equals(name)) {
+						reader.beginArray();
+						inQueries = true;
+					} else {
+						reader.skipValue();
+					}
+				}
+				reader.endObject();
+				return true;
+			}
+
+			// 본문 읽기가 끝난 시점 (정상/오류 모두)
+			void bodyRead() {
+				bodyReadNanos = System.nanoTime();
+			}
+
+			// 모델별 한도를 넘으면 503, 보낼 레플리카가 없는 모델이면 500으로 완료하고 false
+			boolean start(ModelInfo model) throws IOException {
+				this.model = model;
+				if (model.balancer.getReplicas().isEmpty()) {
+					bodyRead();
+					error(500, "Model not configured", "model_not_configured");
+					return false;
+				}
+				if (admittedModel == null) {
+					if (!admission.tryAcquireModel(model.modelname)) {
+						bodyRead();
+						error(503, "Model busy", "model_overloaded");
+						return false;
+					}
+					admittedModel = model.modelname;
+				}
+				return true;
+			}
+
+			private synchronized int pendingSize() {
+				return pending.size();
+			}
+
+			// 윈도우가 차 있으면 본문 읽기를 멈춘다 (true면 읽는 스레드는 바로 반환)
+			private synchronized boolean pauseIfFull() {
+				if (pending.size() < streamWindow) {
+					return false;
+				}
+				paused = true;
+				pausedAtNanos = System.nanoTime();
+				writeReady();
+				return true;
+			}
+
+			synchronized void error(int status, String message, String type) {
+				if (done) {
+					return;
+				}
+				done = true;
+				metrics.error(modelLabel(), type);
+				try {
+					if (!resp.isCommitted()) {
+						String body = "{\"error\":\"" + message + "\"}";
+						if (out == null) {
+							// 출력 시작 전 (블로킹 모드, 작은 본문)
+							resp.resetBuffer();
+							setErrorHeaders(status);
+							resp.getWriter().write(body);
+						} else if (out.isReady()) {
+							resp.resetBuffer();
+							setErrorHeaders(status);
+							out.write(body.getBytes(StandardCharsets.UTF_8));
+						}
+					}
+				} catch (IOException | RuntimeException e) {
+					// 클라이언트 연결 종료 등
+				}
+				async.complete();
+				recordStages();
+			}
+
+			private void setErrorHeaders(int status) {
+				resp.setStatus(status);
+				resp.setContentType("application/json");
+				if (status == 503) {
+					resp.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+				}
+			}
+
+			// 타임아웃: 남은 결과를 unknown으로 채워 보내고 완료 (출력이 밀려 있어 보낼 수 없으면 보내지 않고 완료)
+			private void writeRemaining() {
+				long t = System.nanoTime();
+				try {
+					if (!completing) {
+						while (!pending.isEmpty()) {
+							writeResult(pending.remove().getNow(null));
+						}
+						writer().endArray().endObject().flush();
+						if (out == null) {
+							// 출력 시작 전 (블로킹 모드, 윈도우 이하의 결과)
+							resp.setContentType("application/json");
+							resp.getOutputStream().write(buffer.toByteArray());
+						} else if (out.isReady()) {
+							out.write(buffer.toByteArray());
+						}
+					}
+				} catch (IOException | RuntimeException e) {
+					// 클라이언트 연결 종료 등
+				}
+				writeNanos += System.nanoTime() - t;
+				complete();
+			}
+
+			private void complete() {
+				done = true;
+				async.complete();
+				recordStages();
+			}
+
+			// 결과 하나 기록 (응답 없이 대체된 질의는 오류 지표에도 센다)
+			private void writeResult(String code) throws IOException {
+				if (code == null) {
+					metrics.error(model.modelname, "query_unanswered");
+				}
+				writer().value(model.valueOf(code));
+			}
+
+			// 완료 시 한 번 호출: 단계별 소요 시간을 모델별 히스토그램에 기록
+			private void recordStages() {
+				long end = System.nanoTime();
+				String label = modelLabel();
+				if (bodyReadNanos != 0) {
+					metrics.record(label, Metrics.Stage.PARSE,
+							bodyReadNanos - startNanos - preprocessNanos - dispatchNanos - pausedNanos);
+					metrics.record(label, Metrics.Stage.PREPROCESS, preprocessNanos);
+				}
+				long modelNanos = firstDispatchNanos != 0 ? end - firstDispatchNanos : -1;
+				if (modelNanos >= 0) {
+					metrics.record(label, Metrics.Stage.MODEL, modelNanos);
+				}
+				metrics.record(label, Metrics.Stage.WRITE, writeNanos);
+				metrics.record(label, Metrics.Stage.TOTAL, end - startNanos);
+				metrics.requestFinished();
+				// 한도 조정은 모델 호출마다 ModelClient가 응답 시간을 넘겨 따로 한다
+				admission.release();
+				if (admittedModel != null) {
+					admission.releaseModel(admittedModel);
+				}
+			}
+
+			private String modelLabel() {
+				return model != null ? model.modelname : Metrics.NO_MODEL;
+			}
+
+			// 모인 질의 중 윈도우에 남은 자리만큼 앞에서부터 모델 서버로 보낸다
+			private void dispatch() throws IOException {
+				long start = System.nanoTime();
+				try {
+					int room;
+					synchronized (this) {
+						if (done) {
+							throw new IOException("request already completed");
+						}
+						room = streamWindow - pending.size();
+					}
+					int count = Math.min(unsent.size(), room);
+					if (count <= 0) {
+						return;
+					}
+					if (firstDispatchNanos == 0) {
+						firstDispatchNanos = start;
+					}
+					List<String> sending = unsent.subList(0, count);
+					List<CompletableFuture<String>> codes;
+					try {
+						codes = requestModel(model, sending);
+					} catch (RuntimeException e) {
+						// 본문 오류가 아닌 서버 쪽 실패: 500으로 완료 (이후 read의 400 처리는 이미 완료되어 무시됨)
+						System.err.println("모델 요청 전송 실패 [" + model.modelname + "]: " + e);
+						error(500, "Internal error", "internal");
+						throw new IOException("request already completed", e);
+					}
+					sending.clear();
+					synchronized (this) {
+						pending.addAll(codes);
+						writeReady();
+					}
+				} finally {
+					dispatchNanos += System.nanoTime() - start;
+				}
+			}
+
+			/**
+			 * 출력이 준비된 만큼 완료된 앞쪽 결과를 보내고, 윈도우가 절반 이하로 줄면 멈춘 본문 읽기를 재개한다
+			 * 맨 앞 결과가 아직이면 그 완료 시, 출력이 밀려 있으면 onWritePossible에서 다시 호출된다
+			 * 본문을 다 읽었고(finishing) 모든 결과를 보냈으면 마지막 출력이 끝난 뒤 완료한다
+			 */
+			private synchronized void writeReady() {
+				if (done) {
+					return;
+				}
+				long t = System.nanoTime();
+				try {
+					do {
+						if (out == null) {
+							if (headReady() || (finishing && pending.isEmpty())) {
+								// 보낼 결과가 생기면 비동기 출력 시작 (준비되면 onWritePossible)
+								resp.setContentType("application/json");
+								out = resp.getOutputStream();
+								out.setWriteListener(this);
+								return;
+							}
+							continue;
+						}
+						if (!out.isReady()) {
+							return;
+						}
+						if (completing) {
+							complete();
+							return;
+						}
+						while (headReady()) {
+							writeResult(pending.remove().getNow(null));
+						}
+						boolean last = finishing && pending.isEmpty();
+						if (last) {
+							writer().endArray().endObject();
+						}
+						if (writer != null) {
+							writer.flush();
+						}
+						if (buffer.size() > 0) {
+							out.write(buffer.toByteArray());
+							buffer.reset();
+						}
+						if (last) {
+							completing = true;
+							if (out.isReady()) {
+								complete();
+							}
+							return;
+						}
+						if (paused && pending.size() <= streamWindow / 2) {
+							paused = false;
+							pausedNanos += System.nanoTime() - pausedAtNanos;
+							async.start(this::read);
+						}
+						// 맨 앞 결과가 위에서 확인한 직후 완료됐으면 예약하지 않고 한 번 더 처리
+					} while (!awaitHead());
+				} catch (IOException | RuntimeException e) {
+					// 클라이언트 연결 종료 등
+					complete();
+				} finally {
+					writeNanos += System.nanoTime() - t;
+				}
+			}
 
-			List<String> results = new ArrayList<>();
-			for (JsonElement queryElem : queries) {
-				String query = queryElem.getAsString();
-				String processed = preprocess(query);
-				String code = requestModel(model.url, processed);
-				String value = model.classes.stream().filter(c -> c.code.equals(code)).map(c -> c.value).findFirst()
-						.orElse("unknown");
-				results.add(value);
-			}
-			JsonObject responseJson = new JsonObject();
-			JsonArray resArr = new JsonArray();
-			for (String r : results)
-				resArr.add(r);
-			responseJson.add("results", resArr);
-
-			resp.setContentType("application/json");
-			resp.getWriter().write(gson.toJson(responseJson));
-		}
-
-		// 문장 전처리 (토큰화, 임베딩, 불용어 제거)
-		private String preprocess(String sentence) {
-			String[] tokens = sentence.trim().split("\\s+");
-			List<String> vectors = new ArrayList<>();
-			for (String token : tokens) {
-				String key = token.toLowerCase();
-				String vector = dictionary.get(key);
-				if (vector != null && !stopwords.contains(vector)) {
-					vectors.add(vector);
-				}
-			}
-			return String.join(" ", vectors);
-		}
-
-		// 모델 서버에 HTTP POST 요청 (Jetty 9 HttpClient)
-		private String requestModel(String url, String processed) {
-			Gson gson = new Gson(); // Gson 인스턴스
-			HttpClient httpClient = new HttpClient(); // Jetty HttpClient 생성
-			try {
-				// HttpClient 시작
-				httpClient.start();
-				// JSON 바디 생성
-				String json = String.format("{\"query\":\"%s\"}", processed);
-
-				// POST 요청 생성 및 전송
-				ContentResponse response = httpClient.POST(url).header(HttpHeader.CONTENT_TYPE, "application/json") // Content-Type
-																													// 지정
-						.content(new StringContentProvider(json), "application/json") // JSON 바디 설정
-						.send(); // 동기 전송
-
-				// 응답 코드 및 바디 처리
-				String responseBody = response.getContentAsString();
-				JsonObject res = gson.fromJson(responseBody, JsonObject.class);
-				httpClient.stop(); // HttpClient 종료 (실전에서는 재사용 권장)
-				return res.get("result").getAsString(); // 결과 추출
-			} catch (Exception e) {
-				e.printStackTrace();
-			}
-			return null;
+			private boolean headReady() {
+				return !pending.isEmpty() && pending.peek().isDone();
+			}
+
+			// 맨 앞 결과 완료 시 writeReady 예약, 이미 완료된 결과면 예약하지 않고 false
+			private boolean awaitHead() {
+				CompletableFuture<String> head = pending.peek();
+				if (head == null || awaitedHead == head) {
+					return true;
+				}
+				if (head.isDone()) {
+					return false;
+				}
+				awaitedHead = head;
+				head.thenRun(this::writeReady);
+				return true;
+			}
+
+			// 결과 JSON은 buffer에 쓴다 (처음 쓸 때 응답 시작 부분)
+			private JsonWriter writer() throws IOException {
+				if (writer == null) {
+					writer = new JsonWriter(new OutputStreamWriter(buffer, StandardCharsets.UTF_8));
+					writer.setHtmlSafe(true);
+					writer.beginObject().name("results").beginArray();
+				}
+				return writer;
+			}
+
+			@Override
+			public void onWritePossible() {
+				writeReady();
+			}
+
+			@Override
+			public void onError(Throwable t) {
+				// 출력 실패 (클라이언트 연결 종료 등)
+				synchronized (this) {
+					if (!done) {
+						metrics.error(modelLabel(), "write_failed");
+						complete();
+					}
+				}
+			}
+
+			@Override
+			public synchronized void onTimeout(AsyncEvent event) {
+				if (done) {
+					return;
+				}
+				if (finishing) {
+					metrics.error(modelLabel(), "timeout");
+					writeRemaining();
+				} else {
+					error(504, "Timeout", "timeout");
+				}
+			}
+
+			@Override
+			public void onComplete(AsyncEvent event) {
+			}
+
+			@Override
+			public void onError(AsyncEvent event) {
+				error(500, "Internal error", "internal");
+			}
+
+			@Override
+			public void onStartAsync(AsyncEvent event) {
+			}
+		}
+		// 문장 전처리 (토큰화, 임베딩, 불용어 제거) - 스레드별 토크나이저 재사용
+		static String preprocess(String sentence, VectorDictionary dictionary) {
+			return TOKENIZER.get().process(sentence, dictionary).toString();
+		}
+
+		// 모델 서버에 HTTP POST 요청 (질의별 비동기 결과, 실패/타임아웃 시 null)
+		private List<CompletableFuture<String>> requestModel(ModelInfo model, List<String> processed) {
+			List<CompletableFuture<String>> codes = new ArrayList<>(processed.size());
+			if (model.batch && batchMaxDelayMicros > 0) {
+				// 마이크로 배칭: 다른 요청의 질의와 함께 배치 크기/대기 시간 기준으로 묶어 전송
+				for (String p : processed) {
+					codes.add(withFallback(resultCache.get(model, p,
+							key -> logFailure(model, batcher.submit(model, key)))));
+				}
+			} else if (model.batch) {
+				// 요청 단위 배치: 캐시 미스 질의만 maxBatchSize 단위로 묶어 한 번의 POST로 전송
+				List<String> misses = new ArrayList<>();
+				List<CompletableFuture<String>> missCodes = new ArrayList<>();
+				for (String p : processed) {
+					codes.add(withFallback(resultCache.get(model, p, key -> {
+						CompletableFuture<String> code = new CompletableFuture<>();
+						misses.add(key);
+						missCodes.add(code);
+						return code;
+					})));
+				}
+				int batchSize = model.effectiveBatchSize();
+				for (int from = 0; from < misses.size(); from += batchSize) {
+					int to = Math.min(from + batchSize, misses.size());
+					List<CompletableFuture<String>> chunkCodes = missCodes.subList(from, to);
+					CompletableFuture<List<String>> chunk;
+					try {
+						chunk = modelClient.requestBatch(model, misses.subList(from, to));
+					} catch (RuntimeException e) {
+						// 동기 실패도 미스 future를 완료해 캐시의 진행 중 항목이 남지 않게 한다
+						chunk = CompletableFuture.failedFuture(e);
+					}
+					logFailure(model, chunk).whenComplete((list, error) -> {
+						for (int i = 0; i < chunkCodes.size(); i++) {
+							if (error != null) {
+								chunkCodes.get(i).completeExceptionally(error);
+							} else {
+								chunkCodes.get(i).complete(list.get(i));
+							}
+						}
+					});
+				}
+			} else {
+				for (String p : processed) {
+					codes.add(withFallback(resultCache.get(model, p,
+							key -> logFailure(model, modelClient.request(model, key)))));
+				}
+			}
+			return codes;
+		}
+
+		// 실패/타임아웃 슬롯은 null(unknown)로 대체
+		private CompletableFuture<String> withFallback(CompletableFuture<String> code) {
+			return code.exceptionally(e -> null).completeOnTimeout(null, queryTimeoutMs, TimeUnit.MILLISECONDS);
+		}
+
+		private <T> CompletableFuture<T> logFailure(ModelInfo model, CompletableFuture<T> future) {
+			return future.whenComplete((result, e) -> {
+				if (e == null) {
+					return;
+				}
+				if (e instanceof CircuitBreaker.OpenException || e.getCause() instanceof CircuitBreaker.OpenException) {
+					// 서킷이 열려 보내지 않은 요청 (로그 없이 지표만, 상태 전환은 sp_test3_circuit_transitions_total)
+					metrics.error(model.modelname, "circuit_open");
+					return;
+				}
+				if (e instanceof InFlightLimiter.ExpiredException || e.getCause() instanceof InFlightLimiter.ExpiredException) {
+					// 동시 요청 제한 대기 중 기한이 지나 보내지 않은 요청 (호출자는 이미 타임아웃 처리함)
+					metrics.error(model.modelname, "model_queue_expired");
+					return;
+				}
+				metrics.error(model.modelname, "model_request_failed");
+				System.err.println("모델 요청 실패 [" + model.modelname + "]: " + e);
+			});
 		}
 	}
 
-	// 사전, 불용어, 모델 로드 메소드 (문항1-2와 동일)
-    private static void loadDictionary(String path) throws IOException {
-        try (BufferedReader br = new BufferedReader(new FileReader(path))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] parts = line.split("#");
-                if (parts.length == 2) {
-                    dictionary.put(parts[0], parts[1]);
-                }
-            }
-        }
+	/**
+	 * 지표 서블릿 (GET /metrics, Prometheus 텍스트 형식)
+	 * - 요청 단계별 지연 시간 히스토그램/분위수, 처리 중 요청 수, 오류 카운터
+	 * - 수락 제어 한도/거절 수, 모델별 동시 요청 제한기 상태, 재시도/헤징 횟수, 레플리카별 요청 수, 엔드포인트별 서킷 브레이커 상태
+	 * - 결과 캐시와 마이크로 배칭 통계
+	 */
+	public static class MetricsServlet extends HttpServlet {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+			Metrics.PrometheusWriter out = new Metrics.PrometheusWriter();
+			metrics.write(out);
+
+			Map<String, InFlightLimiter> limiters = new TreeMap<>(modelClient.getLimiters());
+			out.family("sp_test3_model_requests_in_flight", "gauge", "Model server requests in flight per model");
+			for (Map.Entry<String, InFlightLimiter> e : limiters.entrySet()) {
+				out.sample("sp_test3_model_requests_in_flight", modelLabels(e.getKey()), e.getValue().getInFlight());
+			}
+			out.family("sp_test3_model_requests_waiting", "gauge", "Model server requests waiting for a slot per model");
+			for (Map.Entry<String, InFlightLimiter> e : limiters.entrySet()) {
+				out.sample("sp_test3_model_requests_waiting", modelLabels(e.getKey()), e.getValue().getWaiting());
+			}
+			out.family("sp_test3_model_requests_expired_total", "counter",
+					"Model server requests dropped because their deadline passed while waiting for a slot");
+			for (Map.Entry<String, InFlightLimiter> e : limiters.entrySet()) {
+				out.sample("sp_test3_model_requests_expired_total", modelLabels(e.getKey()), e.getValue().getExpiredCount());
+			}
+
+			Map<String, ModelInfo> models = new TreeMap<>(resources.modelIndex);
+			out.family("sp_test3_replica_requests_in_flight", "gauge", "Requests assigned to each model replica and not yet completed");
+			for (ModelInfo model : models.values()) {
+				for (ReplicaBalancer.Replica r : model.balancer.getReplicas()) {
+					out.sample("sp_test3_replica_requests_in_flight", replicaLabels(model, r), r.getOutstanding());
+				}
+			}
+			out.family("sp_test3_replica_requests_total", "counter", "Requests routed to each model replica since the last reload");
+			for (ModelInfo model : models.values()) {
+				for (ReplicaBalancer.Replica r : model.balancer.getReplicas()) {
+					out.sample("sp_test3_replica_requests_total", replicaLabels(model, r), r.getRequestCount());
+				}
+			}
+
+			out.family("sp_test3_admission_limit", "gauge", "Current adaptive concurrency limit");
+			out.sample("sp_test3_admission_limit", "", admission.getLimit());
+			out.family("sp_test3_admission_in_flight", "gauge", "Requests admitted and not yet completed");
+			out.sample("sp_test3_admission_in_flight", "", admission.getInFlight());
+			out.family("sp_test3_admission_rejected_total", "counter", "Requests rejected with 503 by admission control");
+			out.sample("sp_test3_admission_rejected_total", "reason=\"limit\"", admission.getRejectedCount());
+			out.sample("sp_test3_admission_rejected_total", "reason=\"model_limit\"", admission.getModelRejectedCount());
+			out.family("sp_test3_admission_overload_signals_total", "counter",
+					"Model calls that failed with a timeout, open circuit, transport error or 5xx (limit decrease signals)");
+			out.sample("sp_test3_admission_overload_signals_total", "", admission.getOverloadSignalCount());
+			out.family("sp_test3_admission_model_latency_seconds", "gauge",
+					"Smoothed per-call model latency incl. limiter queue wait used by admission control (short EMA vs long EMA baseline)");
+			out.sample("sp_test3_admission_model_latency_seconds", "window=\"short\"", admission.getShortLatencyNanos() / 1e9);
+			out.sample("sp_test3_admission_model_latency_seconds", "window=\"baseline\"",
+					admission.getBaselineLatencyNanos() / 1e9);
+
+			Map<String, CallPolicy.Stats> callStats = new TreeMap<>(modelClient.getStats());
+			out.family("sp_test3_model_retries_total", "counter", "Model calls retried after a retryable failure");
+			for (Map.Entry<String, CallPolicy.Stats> e : callStats.entrySet()) {
+				out.sample("sp_test3_model_retries_total", modelLabels(e.getKey()), e.getValue().getRetryCount());
+			}
+			out.family("sp_test3_model_hedges_total", "counter", "Hedged model calls by outcome");
+			for (Map.Entry<String, CallPolicy.Stats> e : callStats.entrySet()) {
+				CallPolicy.Stats s = e.getValue();
+				out.sample("sp_test3_model_hedges_total", modelLabels(e.getKey()) + ",result=\"fired\"", s.getHedgeCount());
+				out.sample("sp_test3_model_hedges_total", modelLabels(e.getKey()) + ",result=\"won\"", s.getHedgeWonCount());
+				out.sample("sp_test3_model_hedges_total", modelLabels(e.getKey()) + ",result=\"skipped_budget\"",
+						s.getHedgeSkippedCount());
+			}
+			out.family("sp_test3_model_hedge_delay_seconds", "gauge", "Current hedging delay per model (-1 = not hedging)");
+			for (Map.Entry<String, CallPolicy.Stats> e : callStats.entrySet()) {
+				long delay = e.getValue().getHedgeDelayNanos();
+				out.sample("sp_test3_model_hedge_delay_seconds", modelLabels(e.getKey()), delay < 0 ? -1 : delay / 1e9);
+			}
+
+			Map<String, CircuitBreaker> breakers = new TreeMap<>(modelClient.getBreakers());
+			out.family("sp_test3_circuit_state", "gauge", "Circuit breaker state per model endpoint (1 = current state)");
+			for (Map.Entry<String, CircuitBreaker> e : breakers.entrySet()) {
+				for (CircuitBreaker.State state : CircuitBreaker.State.values()) {
+					out.sample("sp_test3_circuit_state", endpointLabels(e.getKey()) + ",state=\"" + state + "\"",
+							e.getValue().getState() == state ? 1 : 0);
+				}
+			}
+			out.family("sp_test3_circuit_opened_total", "counter", "Times the circuit breaker opened per model endpoint");
+			for (Map.Entry<String, CircuitBreaker> e : breakers.entrySet()) {
+				out.sample("sp_test3_circuit_opened_total", endpointLabels(e.getKey()), e.getValue().getOpenedCount());
+			}
+			out.family("sp_test3_circuit_transitions_total", "counter", "Circuit breaker state transitions per model endpoint");
+			for (Map.Entry<String, CircuitBreaker> e : breakers.entrySet()) {
+				for (CircuitBreaker.State from : CircuitBreaker.State.values()) {
+					for (CircuitBreaker.State to : CircuitBreaker.State.values()) {
+						long count = e.getValue().getTransitionCount(from, to);
+						if (count > 0) {
+							out.sample("sp_test3_circuit_transitions_total", endpointLabels(e.getKey()) + ",from=\"" + from
+									+ "\",to=\"" + to + "\"", count);
+						}
+					}
+				}
+			}
+			out.family("sp_test3_circuit_rejected_total", "counter", "Calls rejected while the circuit was open");
+			for (Map.Entry<String, CircuitBreaker> e : breakers.entrySet()) {
+				out.sample("sp_test3_circuit_rejected_total", endpointLabels(e.getKey()), e.getValue().getRejectedCount());
+			}
+
+			out.family("sp_test3_cache_requests_total", "counter", "Result cache lookups by outcome");
+			out.sample("sp_test3_cache_requests_total", "result=\"hit\"", resultCache.getHitCount());
+			out.sample("sp_test3_cache_requests_total", "result=\"miss\"", resultCache.getMissCount());
+			out.sample("sp_test3_cache_requests_total", "result=\"join\"", resultCache.getJoinCount());
+			out.family("sp_test3_cache_evictions_total", "counter", "Result cache evictions");
+			out.sample("sp_test3_cache_evictions_total", "", resultCache.getEvictionCount());
+			out.family("sp_test3_cache_in_flight_timeouts_total", "counter",
+					"Single-flight cache loads abandoned because the model call did not complete in time");
+			out.sample("sp_test3_cache_in_flight_timeouts_total", "", resultCache.getInFlightTimeoutCount());
+
+			out.family("sp_test3_batches_total", "counter", "Micro-batches sent to model servers");
+			out.sample("sp_test3_batches_total", "", batcher.getBatchCount());
+			out.family("sp_test3_batch_items_total", "counter", "Queries sent in micro-batches");
+			out.sample("sp_test3_batch_items_total", "", batcher.getItemCount());
+			out.family("sp_test3_batch_fill_ratio", "gauge", "Average micro-batch fill ratio");
+			out.sample("sp_test3_batch_fill_ratio", "", batcher.getFillRatio());
+			out.family("sp_test3_batch_queue_delay_seconds", "histogram",
+					"Time each query waited in the micro-batch queue before its batch was sent");
+			for (Map.Entry<String, LatencyHistogram> e : new TreeMap<>(batcher.getQueueDelays()).entrySet()) {
+				out.histogram("sp_test3_batch_queue_delay_seconds", modelLabels(e.getKey()), e.getValue());
+			}
+
+			resp.setContentType("text/plain; version=0.0.4; charset=utf-8");
+			resp.getWriter().write(out.toString());
+		}
+
+		private static String modelLabels(String model) {
+			return "model=\"" + Metrics.PrometheusWriter.escape(model) + "\"";
+		}
+
+		private static String endpointLabels(String url) {
+			return "endpoint=\"" + Metrics.PrometheusWriter.escape(url) + "\"";
+		}
+
+		private static String replicaLabels(ModelInfo model, ReplicaBalancer.Replica replica) {
+			return modelLabels(model.modelname) + "," + endpointLabels(replica.getUrl()) + ",weight=\""
+					+ replica.getWeight() + "\"";
+		}
+	}
+
+	// 사전, 불용어, 모델 로드 메소드 (문항1-2와 동일, 매번 새 컬렉션을 만들어 반환)
+    // 구간별 병렬 파싱, 벡터가 불용어인 항목은 로드 시 제외 표시
+    // 로드 결과는 Resources.load가 한 줄로 출력
+    private static VectorDictionary loadDictionary(String path, Set<String> stopwords) throws IOException {
+        return DictionaryLoader.load(path, stopwords, VectorDictionary::create).dictionary();
     }
 
-    private static void loadStopwords(String path) throws IOException {
+    private static Set<String> loadStopwords(String path) throws IOException {
+        Set<String> stopwords = new HashSet<>();
         try (BufferedReader br = new BufferedReader(new FileReader(path))) {
             String line;
             while ((line = br.readLine()) != null) {
                 stopwords.add(line.trim());
             }
         }
+        return stopwords;
     }
 
-	private static void loadModels(String path) throws IOException {
+	private static List<ModelInfo> loadModels(String path) throws IOException {
 		Gson gson = new Gson();
+		List<ModelInfo> models = new ArrayList<>();
 		try (Reader reader = new FileReader(path)) {
 			JsonObject obj = gson.fromJson(reader, JsonObject.class);
 			JsonArray arr = obj.getAsJsonArray("models");
@@ -164,5 +944,25 @@ public class SP_TEST3 {
 				models.add(gson.fromJson(e, ModelInfo.class));
 			}
 		}
+		return models;
+	}
+
+	// 모델명/class code 해시 인덱스, 레플리카 선택기 생성 (요청 처리 중 선형 탐색 제거)
+	static Map<String, ModelInfo> indexModels(List<ModelInfo> list) {
+		ReplicaBalancer.Strategy strategy = ReplicaBalancer.Strategy
+				.valueOf(Settings.getString("model.balancer", "p2c").toUpperCase());
+		Map<String, ModelInfo> index = new HashMap<>();
+		for (ModelInfo model : list) {
+			Map<String, String> classes = new HashMap<>();
+			if (model.classes != null) {
+				for (ClassInfo c : model.classes) {
+					classes.putIfAbsent(c.code, c.value);
+				}
+			}
+			model.classIndex = Map.copyOf(classes);
+			model.balancer = ReplicaBalancer.of(model, strategy);
+			index.putIfAbsent(model.modelname, model);
+		}
+		return Map.copyOf(index);
 	}
 }
\ No newline at end of file
@@ -0,0 +1,87 @@
+import java.lang.reflect.Constructor;
+
+import org.eclipse.jetty.server.ConnectionFactory;
+import org.eclipse.jetty.server.HttpConfiguration;
+import org.eclipse.jetty.server.HttpConnectionFactory;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.util.BlockingArrayQueue;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.eclipse.jetty.util.thread.ThreadPool;
+
+/**
+ * 설정값(Settings)으로 Jetty Server 생성
+ * - 스레드 풀: server.minThreads / maxThreads / maxQueuedRequests / threadIdleTimeoutMs / reservedThreads
+ *   (server.virtualThreads=true 이고 JDK 21 이상이면 작업마다 가상 스레드)
+ * - 커넥터: server.port / acceptors / selectors / acceptQueueSize / idleTimeoutMs
+ * - HTTP/1.1: server.keepAlive / requestHeaderSize / responseHeaderSize / outputBufferSize / sendServerVersion
+ * - server.h2c=true 이면 같은 포트에서 평문 HTTP/2(h2c)도 받는다 (jetty-http2-server가 클래스패스에 있을 때만)
+ * - acceptors/selectors/reservedThreads가 -1이면 Jetty가 CPU 수로 정한다
+ */
+public class ServerFactory {
+	private static final String H2C_FACTORY = "org.eclipse.jetty.http2.server.HTTP2CServerConnectionFactory";
+
+	private ServerFactory() {
+	}
+
+	public static Server create() {
+		Server server = new Server(threadPool());
+
+		HttpConfiguration http = new HttpConfiguration();
+		http.setPersistentConnectionsEnabled(Settings.getBoolean("server.keepAlive", true));
+		http.setRequestHeaderSize(Settings.getInt("server.requestHeaderSize", 8 * 1024));
+		http.setResponseHeaderSize(Settings.getInt("server.responseHeaderSize", 8 * 1024));
+		http.setOutputBufferSize(Settings.getInt("server.outputBufferSize", 32 * 1024));
+		http.setSendServerVersion(Settings.getBoolean("server.sendServerVersion", true));
+
+		ConnectionFactory h2c = Settings.getBoolean("server.h2c", false) ? h2cFactory(http) : null;
+		ConnectionFactory[] factories = h2c == null ? new ConnectionFactory[] { new HttpConnectionFactory(http) }
+				: new ConnectionFactory[] { new HttpConnectionFactory(http), h2c };
+
+		ServerConnector connector = new ServerConnector(server, Settings.getInt("server.acceptors", -1),
+				Settings.getInt("server.selectors", -1), factories);
+		connector.setPort(Settings.getInt("server.port", 8080));
+		connector.setAcceptQueueSize(Settings.getInt("server.acceptQueueSize", 0));
+		connector.setIdleTimeout(Settings.getLong("server.idleTimeoutMs", 30000));
+		server.addConnector(connector);
+
+		System.out.println("서버 설정: port=" + connector.getPort() + ", acceptors=" + connector.getAcceptors()
+				+ ", selectors=" + connector.getSelectorManager().getSelectorCount() + ", idleTimeout="
+				+ connector.getIdleTimeout() + "ms, keepAlive=" + http.isPersistentConnectionsEnabled()
+				+ ", outputBuffer=" + http.getOutputBufferSize() + ", protocols=" + connector.getProtocols()
+				+ ", threadPool=" + server.getThreadPool());
+		return server;
+	}
+
+	private static ThreadPool threadPool() {
+		if (Settings.getBoolean("server.virtualThreads", false)) {
+			VirtualThreadPool pool = VirtualThreadPool.create("server");
+			if (pool != null) {
+				System.out.println("가상 스레드 모드로 실행");
+				return pool;
+			}
+			System.err.println("현재 JDK(" + Runtime.version() + ")는 가상 스레드를 지원하지 않아 QueuedThreadPool을 사용합니다");
+		}
+		int maxThreads = Settings.getInt("server.maxThreads", 200);
+		int minThreads = Math.min(Settings.getInt("server.minThreads", 8), maxThreads);
+		int maxQueued = Settings.getInt("server.maxQueuedRequests", 0);
+		// 대기 큐 크기 0 이하면 제한 없음 (QueuedThreadPool 기본값)
+		QueuedThreadPool pool = new QueuedThreadPool(maxThreads, minThreads,
+				Settings.getInt("server.threadIdleTimeoutMs", 60000),
+				maxQueued > 0 ? new BlockingArrayQueue<>(minThreads, minThreads, maxQueued) : null);
+		pool.setReservedThreads(Settings.getInt("server.reservedThreads", -1));
+		pool.setName("server");
+		return pool;
+	}
+
+	// HTTP2CServerConnectionFactory(HttpConfiguration) - 클래스가 없으면 경고 후 HTTP/1.1만 사용
+	private static ConnectionFactory h2cFactory(HttpConfiguration http) {
+		try {
+			Constructor<?> constructor = Class.forName(H2C_FACTORY).getConstructor(HttpConfiguration.class);
+			return (ConnectionFactory) constructor.newInstance(http);
+		} catch (ReflectiveOperationException | LinkageError e) {
+			System.err.println("h2c를 사용하려면 jetty-http2-server/http2-common/http2-hpack jar가 필요합니다. HTTP/1.1만 사용합니다: " + e);
+			return null;
+		}
+	}
+}
@@ -0,0 +1,79 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+/**
+ * SP_TEST3 설정값 조회
+ * - JVM 시스템 프로퍼티(-Dkey=value)에서 값을 읽고, 없으면 기본값을 사용한다
+ * - init으로 설정 파일(properties, UTF-8)과 명령행 인자(--key=value)를 시스템 프로퍼티에 반영한다
+ *   우선순위: 명령행 인자 > -D 시스템 프로퍼티 > 설정 파일 > 기본값
+ */
+public class Settings {
+
+	private Settings() {
+	}
+
+	/**
+	 * 설정 파일과 명령행 인자 적용 (설정을 읽는 구성 요소를 만들기 전에 호출)
+	 * - 설정 파일 경로: --config=경로, -Dconfig=경로, 없으면 defaultFile (파일이 없으면 건너뜀)
+	 */
+	public static void init(String[] args, String defaultFile) throws IOException {
+		Properties cli = new Properties();
+		for (String arg : args) {
+			if (arg.startsWith("--") && arg.indexOf('=') > 2) {
+				int eq = arg.indexOf('=');
+				cli.setProperty(arg.substring(2, eq).trim(), arg.substring(eq + 1).trim());
+			} else {
+				throw new IllegalArgumentException("unknown argument (expected --key=value): " + arg);
+			}
+		}
+
+		String path = cli.getProperty("config", System.getProperty("config", defaultFile));
+		if (new File(path).isFile()) {
+			Properties file = new Properties();
+			try (Reader reader = Files.newBufferedReader(Path.of(path), StandardCharsets.UTF_8)) {
+				file.load(reader);
+			}
+			for (String key : file.stringPropertyNames()) {
+				if (System.getProperty(key) == null) {
+					System.setProperty(key, file.getProperty(key).trim());
+				}
+			}
+			System.out.println("설정 파일 로드: " + path + " (" + file.size() + "건)");
+		} else if (cli.containsKey("config") || System.getProperty("config") != null) {
+			throw new IOException("config file not found: " + path);
+		}
+		for (String key : cli.stringPropertyNames()) {
+			System.setProperty(key, cli.getProperty(key));
+		}
+	}
+
+	public static String getString(String key, String defaultValue) {
+		String value = System.getProperty(key);
+		return (value == null || value.trim().isEmpty()) ? defaultValue : value.trim();
+	}
+
+	public static int getInt(String key, int defaultValue) {
+		String value = getString(key, null);
+		return value == null ? defaultValue : Integer.parseInt(value);
+	}
+
+	public static long getLong(String key, long defaultValue) {
+		String value = getString(key, null);
+		return value == null ? defaultValue : Long.parseLong(value);
+	}
+
+	public static double getDouble(String key, double defaultValue) {
+		String value = getString(key, null);
+		return value == null ? defaultValue : Double.parseDouble(value);
+	}
+
+	public static boolean getBoolean(String key, boolean defaultValue) {
+		String value = getString(key, null);
+		return value == null ? defaultValue : Boolean.parseBoolean(value);
+	}
+}
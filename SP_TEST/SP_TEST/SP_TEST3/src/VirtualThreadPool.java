@@ -0,0 +1,113 @@
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jetty.util.component.AbstractLifeCycle;
+import org.eclipse.jetty.util.thread.ThreadPool;
+
+/**
+ * 작업마다 가상 스레드(virtual thread)를 하나씩 만드는 Jetty ThreadPool
+ * - Server/HttpClient의 실행기로 사용하면 요청/응답 처리마다 가상 스레드가 생성되므로,
+ *   블로킹 코드라도 동시 요청 수가 플랫폼 스레드 수에 묶이지 않는다
+ * - 가상 스레드 API는 JDK 21부터 정식 지원이므로 리플렉션으로 찾고, 없으면 create가 null을 반환한다
+ *   (빌드 JDK는 17 그대로 유지)
+ * - 셀렉터/억셉터처럼 계속 실행되는 작업도 가상 스레드에서 돈다
+ */
+public class VirtualThreadPool extends AbstractLifeCycle implements ThreadPool {
+	private final String name;
+	private final ThreadFactory factory;
+	private final AtomicInteger running = new AtomicInteger();
+	private ExecutorService executor;
+
+	private VirtualThreadPool(String name, ThreadFactory factory) {
+		this.name = name;
+		this.factory = factory;
+	}
+
+	/**
+	 * 가상 스레드 풀 생성 (현재 JDK가 가상 스레드를 지원하지 않으면 null)
+	 */
+	public static VirtualThreadPool create(String name) {
+		ThreadFactory factory = virtualThreadFactory(name);
+		return factory == null ? null : new VirtualThreadPool(name, factory);
+	}
+
+	public static boolean isSupported() {
+		return virtualThreadFactory("probe") != null;
+	}
+
+	// Thread.ofVirtual().name(prefix, 0).factory()
+	private static ThreadFactory virtualThreadFactory(String name) {
+		try {
+			Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+			Class<?> ofVirtual = Class.forName("java.lang.Thread$Builder$OfVirtual");
+			builder = ofVirtual.getMethod("name", String.class, long.class).invoke(builder, name + "-", 0L);
+			return (ThreadFactory) ofVirtual.getMethod("factory").invoke(builder);
+		} catch (NoSuchMethodException | ClassNotFoundException | IllegalAccessException e) {
+			return null;
+		} catch (InvocationTargetException e) {
+			// JDK 19/20에서 --enable-preview 없이 호출한 경우 (UnsupportedOperationException)
+			return null;
+		}
+	}
+
+	@Override
+	protected void doStart() throws Exception {
+		// Executors.newThreadPerTaskExecutor(factory) (JDK 21+)
+		Method perTask = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+		executor = (ExecutorService) perTask.invoke(null, factory);
+	}
+
+	@Override
+	protected void doStop() throws Exception {
+		executor.shutdownNow();
+		executor.awaitTermination(1, TimeUnit.SECONDS);
+	}
+
+	@Override
+	public void execute(Runnable task) {
+		executor.execute(() -> {
+			running.incrementAndGet();
+			try {
+				task.run();
+			} finally {
+				running.decrementAndGet();
+			}
+		});
+	}
+
+	@Override
+	public void join() throws InterruptedException {
+		while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+			// 종료될 때까지 대기
+		}
+	}
+
+	/**
+	 * 실행 중인 가상 스레드 수
+	 */
+	@Override
+	public int getThreads() {
+		return running.get();
+	}
+
+	// 필요할 때마다 만들므로 대기 스레드 개념이 없고, 스레드가 부족해지지도 않는다
+	@Override
+	public int getIdleThreads() {
+		return 0;
+	}
+
+	@Override
+	public boolean isLowOnThreads() {
+		return false;
+	}
+
+	@Override
+	public String toString() {
+		return "VirtualThreadPool[" + name + ", running=" + running.get() + "]";
+	}
+}
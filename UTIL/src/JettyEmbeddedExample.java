@@ -1,11 +1,29 @@
+import org.eclipse.jetty.server.ConnectionFactory;
+import org.eclipse.jetty.server.HttpConfiguration;
+import org.eclipse.jetty.server.HttpConnectionFactory;
 import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
 import org.eclipse.jetty.servlet.ServletHandler;
+import org.eclipse.jetty.util.BlockingArrayQueue;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
 import javax.servlet.http.*;
 import javax.servlet.*;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
 
+/**
+ * 실행: java JettyEmbeddedExample [--config=jetty.properties] [--server.port=8080 --server.maxThreads=200 ...]
+ * 설정 키는 ServerConfig 참고 (명령행 인자 > 설정 파일 > 기본값)
+ */
 public class JettyEmbeddedExample {
     public static void main(String[] args) throws Exception {
-        Server server = new Server(8080); // 8080 포트로 Jetty 서버 인스턴스 생성
+        ServerConfig config = ServerConfig.load(args, "jetty.properties"); // 설정 파일 + 명령행 인자 읽기
+        Server server = config.createServer(); // 설정한 스레드 풀/커넥터로 Jetty 서버 인스턴스 생성
 
         ServletHandler handler = new ServletHandler(); // 서블릿 핸들러 준비
         handler.addServletWithMapping(HelloServlet.class, "/hello"); // "/hello" 경로에 서블릿 매핑
@@ -60,4 +78,81 @@ public class JettyEmbeddedExample {
             resp.getWriter().write("[POST]Hello, Jetty Embedded!");
         }        
     }
+
+    /**
+     * Jetty 서버 설정 (properties 파일 + --key=value 명령행 인자)
+     * - 스레드 풀: server.minThreads, server.maxThreads, server.maxQueuedRequests(0 이하: 무제한), server.threadIdleTimeoutMs
+     * - 커넥터: server.port, server.acceptors, server.selectors(-1: CPU 수로 결정), server.idleTimeoutMs
+     * - HTTP/1.1: server.keepAlive, server.requestHeaderSize, server.responseHeaderSize, server.outputBufferSize
+     * - server.h2c=true: 평문 HTTP/2 추가 (jetty-http2-server, http2-common, http2-hpack jar 필요)
+     */
+    public static class ServerConfig {
+        private final Properties props = new Properties();
+
+        public static ServerConfig load(String[] args, String defaultFile) throws IOException {
+            ServerConfig config = new ServerConfig();
+            Properties cli = new Properties();
+            for (String arg : args) {
+                int eq = arg.indexOf('=');
+                if (arg.startsWith("--") && eq > 2) {
+                    cli.setProperty(arg.substring(2, eq), arg.substring(eq + 1));
+                }
+            }
+            String path = cli.getProperty("config", defaultFile);
+            if (new File(path).isFile()) {
+                try (Reader reader = Files.newBufferedReader(Path.of(path), StandardCharsets.UTF_8)) {
+                    config.props.load(reader);
+                }
+            }
+            config.props.putAll(cli); // 명령행 인자가 파일 값을 덮어씀
+            return config;
+        }
+
+        public int getInt(String key, int defaultValue) {
+            String value = props.getProperty(key);
+            return value == null ? defaultValue : Integer.parseInt(value.trim());
+        }
+
+        public boolean getBoolean(String key, boolean defaultValue) {
+            String value = props.getProperty(key);
+            return value == null ? defaultValue : Boolean.parseBoolean(value.trim());
+        }
+
+        public Server createServer() {
+            int maxThreads = getInt("server.maxThreads", 200);
+            int minThreads = Math.min(getInt("server.minThreads", 8), maxThreads);
+            int maxQueued = getInt("server.maxQueuedRequests", 0);
+            QueuedThreadPool threadPool = new QueuedThreadPool(maxThreads, minThreads,
+                    getInt("server.threadIdleTimeoutMs", 60000),
+                    maxQueued > 0 ? new BlockingArrayQueue<>(minThreads, minThreads, maxQueued) : null);
+            Server server = new Server(threadPool);
+
+            HttpConfiguration http = new HttpConfiguration();
+            http.setPersistentConnectionsEnabled(getBoolean("server.keepAlive", true)); // HTTP/1.1 keep-alive
+            http.setRequestHeaderSize(getInt("server.requestHeaderSize", 8 * 1024));
+            http.setResponseHeaderSize(getInt("server.responseHeaderSize", 8 * 1024));
+            http.setOutputBufferSize(getInt("server.outputBufferSize", 32 * 1024));
+
+            ConnectionFactory http11 = new HttpConnectionFactory(http);
+            ConnectionFactory h2c = getBoolean("server.h2c", false) ? h2c(http) : null;
+            ServerConnector connector = new ServerConnector(server, getInt("server.acceptors", -1),
+                    getInt("server.selectors", -1),
+                    h2c == null ? new ConnectionFactory[] { http11 } : new ConnectionFactory[] { http11, h2c });
+            connector.setPort(getInt("server.port", 8080));
+            connector.setIdleTimeout(getInt("server.idleTimeoutMs", 30000));
+            server.addConnector(connector);
+            return server;
+        }
+
+        // h2c 모듈은 lib에 없으므로 리플렉션으로 생성 (없으면 HTTP/1.1만 사용)
+        private ConnectionFactory h2c(HttpConfiguration http) {
+            try {
+                return (ConnectionFactory) Class.forName("org.eclipse.jetty.http2.server.HTTP2CServerConnectionFactory")
+                        .getConstructor(HttpConfiguration.class).newInstance(http);
+            } catch (ReflectiveOperationException e) {
+                System.out.println("h2c 모듈이 없어 HTTP/1.1만 사용합니다: " + e);
+                return null;
+            }
+        }
+    }
 }
\ No newline at end of file